@@ -1,3 +1,55 @@
 #!/bin/bash
 
-java -cp build/maven/aws-apigateway-swagger-importer-1.0.0-jar-with-dependencies.jar com.amazonaws.service.apigateway.importer.ApiImporterMain "$@"
+# If an import server is running (aws-api-import.sh --server), send the job to the server instead of starting a JVM.
+# Only create, update and deploy jobs are sent to the server, anything else runs locally.
+
+JAR=build/maven/aws-apigateway-swagger-importer-1.0.0-jar-with-dependencies.jar
+SERVER=${AWS_API_IMPORT_SERVER:-http://127.0.0.1:8989}
+TOKEN_FILE=~/.aws-apigateway-importer/server-token
+
+run_local() {
+    exec java -cp "$JAR" com.amazonaws.service.apigateway.importer.ApiImporterMain "$@"
+}
+
+json_string() {
+    if [ -z "$1" ]; then
+        echo null
+    else
+        printf '"%s"' "$(printf '%s' "$1" | sed -e 's/\\/\\\\/g' -e 's/"/\\"/g')"
+    fi
+}
+
+action= api_id= stage= file=
+args=("$@")
+
+while [ $# -gt 0 ]; do
+    case "$1" in
+        --create|-c) action=create ;;
+        --update|-u) action=update; api_id=$2; shift ;;
+        --deploy|-d) stage=$2; shift ;;
+        -*) run_local "${args[@]}" ;;
+        *) [ -n "$file" ] && run_local "${args[@]}"; file=$1 ;;
+    esac
+    shift
+done
+
+if [ "$action" = update ] && [ -z "$file" ] && [ -n "$stage" ]; then
+    action=deploy
+fi
+
+if [ -z "$action" ] || [ ! -r "$TOKEN_FILE" ] || ! curl -sf -m 1 "$SERVER/health" > /dev/null 2>&1; then
+    run_local "${args[@]}"
+fi
+
+if [ -n "$file" ]; then
+    file=$(cd "$(dirname "$file")" && pwd)/$(basename "$file")
+fi
+
+job="{\"action\":\"$action\",\"apiId\":$(json_string "$api_id"),\"file\":$(json_string "$file"),\"stage\":$(json_string "$stage")}"
+
+response=$(curl -s -w '\n%{http_code}' -X POST -H 'Content-Type: application/json' \
+    -H "X-Import-Token: $(cat "$TOKEN_FILE")" --data-binary "$job" "$SERVER/jobs")
+status=${response##*$'\n'}
+echo "${response%$'\n'*}"
+
+[ "$status" = "200" ]
@@ -0,0 +1,14 @@
+#!/bin/bash
+
+# Build the importer and the benchmarks without network access, and run the benchmarks with the GC profiler.
+# Dependencies must have been downloaded once, e.g. by a previous online build.
+# Arguments are passed to JMH, e.g. ./run-benchmarks.sh SchemaTransformerBenchmark -p referenceDepth=32
+
+set -e
+
+cd "$(dirname "$0")"
+
+mvn -o -q -f ../pom.xml install -DskipTests
+mvn -o -q package
+
+exec java -jar build/maven/benchmarks.jar -prof gc "$@"
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.benchmark;
+
+import com.amazonaws.service.apigateway.importer.impl.SchemaTransformer;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flattening of all definitions of a swagger, as done once per import
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SchemaTransformerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int definitionCount;
+
+    @Param({"1", "8", "32"})
+    private int referenceDepth;
+
+    private JsonNode definitions;
+
+    @Setup
+    public void setUp() {
+        definitions = SyntheticSpecs.generate(0, definitionCount, referenceDepth).get("definitions");
+    }
+
+    @Benchmark
+    public void flattenDefinitions(Blackhole blackhole) {
+        final SchemaTransformer transformer = new SchemaTransformer(definitions);
+
+        for (Iterator<JsonNode> models = definitions.elements(); models.hasNext(); ) {
+            // flatten transforms the schema in place
+            blackhole.consume(transformer.flatten(models.next().deepCopy()));
+        }
+    }
+}
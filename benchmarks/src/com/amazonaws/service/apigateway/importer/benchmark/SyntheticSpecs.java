@@ -0,0 +1,120 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.benchmark;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.wordnik.swagger.models.Swagger;
+import com.wordnik.swagger.util.Json;
+
+/**
+ * Generates Swagger documents of a given size, for benchmarks that need larger specs than the test resources
+ */
+public final class SyntheticSpecs {
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+    private static final int GROUPS = 16;
+
+    private SyntheticSpecs() {
+    }
+
+    public static Swagger generateSwagger(int pathCount, int definitionCount, int referenceDepth) {
+        return Json.mapper().convertValue(generate(pathCount, definitionCount, referenceDepth), Swagger.class);
+    }
+
+    /**
+     * Generate a Swagger document
+     * @param pathCount the number of paths, each with a GET and a POST operation
+     * @param definitionCount the number of top level definitions
+     * @param referenceDepth the length of the chain of definitions referenced from each top level definition
+     */
+    public static ObjectNode generate(int pathCount, int definitionCount, int referenceDepth) {
+        final ObjectNode swagger = NODES.objectNode();
+        swagger.put("swagger", "2.0");
+        swagger.putObject("info").put("title", "Synthetic API").put("version", "1.0.0");
+        swagger.put("basePath", "/v1");
+        swagger.putArray("produces").add("application/json");
+
+        final ObjectNode paths = swagger.putObject("paths");
+        for (int i = 0; i < pathCount; i++) {
+            paths.set("/group" + (i % GROUPS) + "/item" + i + "/{id}", generatePath(i, getModelName(i % definitionCount, 0)));
+        }
+
+        final ObjectNode definitions = swagger.putObject("definitions");
+        for (int i = 0; i < definitionCount; i++) {
+            for (int level = 0; level < referenceDepth; level++) {
+                definitions.set(getModelName(i, level), generateModel(level + 1 < referenceDepth ? getModelName(i, level + 1) : null));
+            }
+        }
+
+        return swagger;
+    }
+
+    private static ObjectNode generatePath(int index, String modelName) {
+        final ObjectNode path = NODES.objectNode();
+
+        final ObjectNode get = path.putObject("get");
+        final ArrayNode getParameters = get.putArray("parameters");
+        getParameters.add(generateParameter("id", "path", true));
+        getParameters.add(generateParameter("limit", "query", false));
+
+        final ObjectNode list = get.putObject("responses").putObject("200");
+        list.put("description", "List of items " + index);
+        list.putObject("schema").put("type", "array").putObject("items").put("$ref", getRef(modelName));
+
+        final ObjectNode post = path.putObject("post");
+        final ObjectNode body = post.putArray("parameters").addObject();
+        body.put("name", "body").put("in", "body").put("required", true);
+        body.putObject("schema").put("$ref", getRef(modelName));
+
+        final ObjectNode responses = post.putObject("responses");
+        responses.putObject("201").put("description", "Created").putObject("schema").put("$ref", getRef(modelName));
+        responses.putObject("400").put("description", "Invalid item " + index);
+
+        return path;
+    }
+
+    private static ObjectNode generateParameter(String name, String in, boolean required) {
+        final ObjectNode parameter = NODES.objectNode();
+        parameter.put("name", name).put("in", in).put("required", required).put("type", "string");
+        return parameter;
+    }
+
+    private static ObjectNode generateModel(String childName) {
+        final ObjectNode model = NODES.objectNode();
+        model.put("type", "object");
+        model.putArray("required").add("id");
+
+        final ObjectNode properties = model.putObject("properties");
+        properties.putObject("id").put("type", "string");
+        properties.putObject("name").put("type", "string").put("description", "Display name");
+        properties.putObject("count").put("type", "integer").put("format", "int32");
+
+        if (childName != null) {
+            properties.putObject("child").put("$ref", getRef(childName));
+            properties.putObject("children").put("type", "array").putObject("items").put("$ref", getRef(childName));
+        }
+
+        return model;
+    }
+
+    private static String getModelName(int index, int level) {
+        return "Model" + index + "Level" + level;
+    }
+
+    private static String getRef(String modelName) {
+        return "#/definitions/" + modelName;
+    }
+}
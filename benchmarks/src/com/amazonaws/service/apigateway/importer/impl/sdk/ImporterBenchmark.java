@@ -0,0 +1,100 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.service.apigateway.importer.benchmark.SyntheticSpecs;
+import com.wordnik.swagger.models.Operation;
+import com.wordnik.swagger.models.Swagger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work the importer does on a swagger before the first remote call: resource paths, content types, the
+ * operation index and the generation of all model schemas
+ *
+ * The benchmarks live in the importer package to reach its package-private methods
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImporterBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pathCount;
+
+    @Param({"10", "100"})
+    private int definitionCount;
+
+    @Param({"4"})
+    private int referenceDepth;
+
+    private ApiGatewaySdkSwaggerApiImporter importer;
+    private Swagger swagger;
+    private List<String> paths;
+    private List<Operation> operations;
+
+    @Setup
+    public void setUp() {
+        importer = new ApiGatewaySdkSwaggerApiImporter();
+        swagger = SyntheticSpecs.generateSwagger(pathCount, definitionCount, referenceDepth);
+        paths = new ArrayList<>(swagger.getPaths().keySet());
+
+        operations = new ArrayList<>();
+        swagger.getPaths().values().forEach(path -> operations.addAll(path.getOperations()));
+    }
+
+    @Benchmark
+    public void buildResourcePath(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(importer.buildResourcePath(swagger.getBasePath(), path));
+        }
+    }
+
+    @Benchmark
+    public void getProducesContentType(Blackhole blackhole) {
+        for (Operation operation : operations) {
+            blackhole.consume(importer.getProducesContentType(swagger.getProduces(), operation.getProduces()));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Operation>> buildOperations() {
+        return importer.buildOperations(swagger.getBasePath(), swagger.getPaths());
+    }
+
+    @Benchmark
+    public ImportContext generateModels() {
+        return importer.createContext(swagger, new FingerprintStore.Fingerprints(Collections.emptyMap()));
+    }
+}
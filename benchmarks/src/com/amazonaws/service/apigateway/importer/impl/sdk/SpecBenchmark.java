@@ -0,0 +1,74 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.wordnik.swagger.models.Operation;
+import com.wordnik.swagger.models.Swagger;
+import com.wordnik.swagger.util.Json;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work the importer does before the first remote call, for the specs used by the tests
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SpecBenchmark {
+
+    @Param({"apigateway.json", "petstore.json", "test.json", "uber.json"})
+    private String spec;
+
+    private ApiGatewaySdkSwaggerApiImporter importer;
+    private Swagger swagger;
+
+    @Setup
+    public void setUp() throws IOException {
+        importer = new ApiGatewaySdkSwaggerApiImporter();
+
+        try (InputStream in = getClass().getResourceAsStream("/specs/" + spec)) {
+            swagger = Json.mapper().readValue(in, Swagger.class);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Operation>> buildOperations() {
+        return importer.buildOperations(swagger.getBasePath(), swagger.getPaths());
+    }
+
+    @Benchmark
+    public ImportContext generateModels() {
+        return importer.createContext(swagger, new FingerprintStore.Fingerprints(Collections.emptyMap()));
+    }
+}
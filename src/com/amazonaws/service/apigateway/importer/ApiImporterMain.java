@@ -17,6 +17,12 @@ package com.amazonaws.service.apigateway.importer;
 import com.amazonaws.service.apigateway.importer.config.ApiImporterModule;
 import com.amazonaws.service.apigateway.importer.config.AwsConfig;
 import com.amazonaws.service.apigateway.importer.impl.ApiGatewaySwaggerFileImporter;
+import com.amazonaws.service.apigateway.importer.impl.BatchImporter;
+import com.amazonaws.service.apigateway.importer.impl.ImportManifest;
+import com.amazonaws.service.apigateway.importer.impl.ImportServer;
+import com.amazonaws.service.apigateway.importer.impl.SwaggerFileWatcher;
+import com.amazonaws.service.apigateway.importer.impl.TraceRecorder;
+import com.amazonaws.service.apigateway.importer.impl.sdk.CallMetrics;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.google.inject.Guice;
@@ -30,11 +36,17 @@ import org.apache.log4j.Logger;
 import org.apache.log4j.PatternLayout;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 
 public class ApiImporterMain {
     private static final Log LOG = LogFactory.getLog(ApiImporterMain.class);
     private static final String CMD_NAME = "aws-api-import";
+    private static final int DEFAULT_JOBS = 4;
+    private static final int DEFAULT_PORT = 8989;
+    private static final String SERVER_TOKEN_FILE = "server-token";
+    private static final long WATCH_DEBOUNCE_MILLIS = 500;
 
     @Parameter(names = {"--update", "-u"}, description = "API ID to import swagger into an existing API")
     private String apiId;
@@ -54,6 +66,39 @@ public class ApiImporterMain {
     @Parameter(names = {"--profile", "-p"}, description = "AWS CLI profile to use")
     private String profile = "default";
 
+    @Parameter(names = "--rate", description = "Initial number of API Gateway requests per second, adjusted when throttled")
+    private double rateLimit = ApiImporterModule.DEFAULT_RATE_LIMIT;
+
+    @Parameter(names = "--burst", description = "Maximum number of API Gateway requests sent in a burst")
+    private int rateBurst = ApiImporterModule.DEFAULT_RATE_BURST;
+
+    @Parameter(names = "--concurrency", description = "Maximum number of API Gateway operations run in parallel")
+    private int concurrency = ApiImporterModule.DEFAULT_CONCURRENCY;
+
+    @Parameter(names = {"--manifest", "-m"}, description = "Manifest listing the Swagger files to import in a single run")
+    private String manifest;
+
+    @Parameter(names = "--server", description = "Run as a local import server accepting jobs over HTTP")
+    private boolean server;
+
+    @Parameter(names = "--port", description = "Port the import server listens on")
+    private int port = DEFAULT_PORT;
+
+    @Parameter(names = "--jobs", description = "Maximum number of manifest imports or server jobs run in parallel")
+    private int jobs = DEFAULT_JOBS;
+
+    @Parameter(names = {"--watch", "-w"}, description = "Keep running and update the API each time the Swagger file changes (update only)")
+    private boolean watch;
+
+    @Parameter(names = "--force", description = "Update every model and method, even if unchanged since the last import")
+    private boolean force;
+
+    @Parameter(names = "--metrics", description = "Write metrics of the API Gateway calls to <prefix>.json and <prefix>.prom (Prometheus) when the run ends")
+    private String metrics;
+
+    @Parameter(names = "--trace", description = "Write a timing trace of the import phases to a file in the Chrome trace event format when the run ends")
+    private String trace;
+
     @Parameter(names = "--help", help = true)
     private boolean help;
 
@@ -91,7 +136,30 @@ public class ApiImporterMain {
         }
 
         try {
-            Injector injector = Guice.createInjector(new ApiImporterModule(config));
+            TraceRecorder traceRecorder = trace != null ? TraceRecorder.create() : TraceRecorder.DISABLED;
+            Injector injector = Guice.createInjector(new ApiImporterModule(config, rateLimit, rateBurst, concurrency, force,
+                                                                           metrics != null),
+                                                     binder -> binder.bind(TraceRecorder.class).toInstance(traceRecorder));
+
+            if (metrics != null) {
+                // written on exit, including failed runs and stopped watch or server runs
+                CallMetrics callMetrics = injector.getInstance(CallMetrics.class);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> callMetrics.writeReports(metrics)));
+            }
+
+            if (trace != null) {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> writeTrace(traceRecorder)));
+            }
+
+            if (manifest != null) {
+                importManifest(injector);
+                return;
+            }
+
+            if (server) {
+                startServer(injector);
+                return;
+            }
 
             ApiGatewaySwaggerFileImporter importer = injector.getInstance(ApiGatewaySwaggerFileImporter.class);
 
@@ -110,17 +178,91 @@ public class ApiImporterMain {
             if (!StringUtils.isBlank(deploymentLabel)) {
                 importer.deploy(apiId, deploymentLabel);
             }
+
+            if (watch) {
+                watch(importer, swaggerFile);
+            }
         } catch (Throwable t) {
             LOG.error("Error importing API from Swagger", t);
             System.exit(1);
         }
     }
 
+    /*
+     * Update the API on every change to the swagger file. The process, the injector and the API Gateway client stay
+     * up between changes, and the stored fingerprints limit each update to the components that changed
+     */
+    private void watch(ApiGatewaySwaggerFileImporter importer, String swaggerFile) throws IOException, InterruptedException {
+        try (SwaggerFileWatcher watcher = new SwaggerFileWatcher(Paths.get(swaggerFile), WATCH_DEBOUNCE_MILLIS)) {
+            watcher.watch(() -> {
+                importer.updateApi(apiId, swaggerFile);
+
+                if (!StringUtils.isBlank(deploymentLabel)) {
+                    importer.deploy(apiId, deploymentLabel);
+                }
+            });
+        }
+    }
+
+    private void writeTrace(TraceRecorder traceRecorder) {
+        try {
+            traceRecorder.write(Paths.get(trace));
+        } catch (IOException e) {
+            LOG.warn("Could not write import trace to " + trace, e);
+        }
+    }
+
+    private void startServer(Injector injector) throws IOException {
+        ImportServer importServer = new ImportServer(injector.getInstance(BatchImporter.class), jobs);
+        importServer.start(port, ApiImporterModule.getStateDirectory().resolve(SERVER_TOKEN_FILE));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(importServer::stop));
+    }
+
+    private void importManifest(Injector injector) {
+        List<BatchImporter.Result> results = injector.getInstance(BatchImporter.class)
+                .importAll(ImportManifest.load(manifest), jobs);
+
+        BatchImporter.logSummary(results);
+
+        if (results.stream().anyMatch(r -> !r.isSuccess())) {
+            System.exit(1);
+        }
+    }
+
     private boolean validateArgs() {
+        if (concurrency < 1) {
+            LOG.error("Concurrency must be at least 1");
+            return false;
+        }
+
+        if (rateLimit <= 0) {
+            LOG.error("Rate must be greater than 0");
+            return false;
+        }
+
+        if (rateBurst < 1) {
+            LOG.error("Burst must be at least 1");
+            return false;
+        }
+
+        if (server) {
+            return validateServerArgs();
+        }
+
+        if (manifest != null) {
+            return validateManifestArgs();
+        }
+
         if ((apiId == null && !createNew) || files == null || files.isEmpty()) {
             return false;
         }
 
+        if (watch && apiId == null) {
+            LOG.error("Watch mode is only supported when updating an API");
+            return false;
+        }
+
         if (cleanup && apiId != null) {
             LOG.error("Test mode is not supported when updating an API");
             return false;
@@ -135,4 +277,43 @@ public class ApiImporterMain {
         return true;
     }
 
+    private boolean validateServerArgs() {
+        if (apiId != null || createNew || cleanup || watch || manifest != null || deploymentLabel != null
+                || (files != null && !files.isEmpty())) {
+            LOG.error("Jobs are posted to the import server, the server takes no files or API options");
+            return false;
+        }
+
+        if (jobs < 1) {
+            LOG.error("Jobs must be at least 1");
+            return false;
+        }
+
+        if (trace != null) {
+            LOG.error("Tracing is not supported by the import server, the trace would grow with every job");
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean validateManifestArgs() {
+        if (apiId != null || createNew || cleanup || watch || deploymentLabel != null || (files != null && !files.isEmpty())) {
+            LOG.error("The manifest defines the files to import, their target APIs and stages");
+            return false;
+        }
+
+        if (jobs < 1) {
+            LOG.error("Jobs must be at least 1");
+            return false;
+        }
+
+        if (!new File(manifest).exists()) {
+            LOG.error(String.format("Could not load manifest '%s'", manifest));
+            return false;
+        }
+
+        return true;
+    }
+
 }
@@ -16,32 +16,84 @@ package com.amazonaws.service.apigateway.importer.config;
 
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.profile.ProfileCredentialsProvider;
+import com.amazonaws.service.apigateway.importer.ApiFileImporter;
 import com.amazonaws.service.apigateway.importer.ApiImporterMain;
 import com.amazonaws.service.apigateway.importer.SwaggerApiImporter;
+import com.amazonaws.service.apigateway.importer.impl.ApiGatewaySwaggerFileImporter;
+import com.amazonaws.service.apigateway.importer.impl.SwaggerCache;
+import com.amazonaws.service.apigateway.importer.impl.sdk.AdaptiveRateLimiter;
 import com.amazonaws.service.apigateway.importer.impl.sdk.ApiGatewaySdkSwaggerApiImporter;
+import com.amazonaws.service.apigateway.importer.impl.sdk.CallMetrics;
+import com.amazonaws.service.apigateway.importer.impl.sdk.FingerprintStore;
+import com.amazonaws.service.apigateway.importer.impl.sdk.MetricsHalClientProxy;
+import com.amazonaws.service.apigateway.importer.impl.sdk.RateLimiter;
+import com.amazonaws.service.apigateway.importer.impl.sdk.ThrottlingHalClientProxy;
 import com.amazonaws.services.apigateway.AmazonApiGateway;
 import com.amazonaws.services.apigateway.model.ApiGateway;
 import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
 import com.google.inject.Provides;
+import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import com.google.inject.name.Names;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 public class ApiImporterModule extends AbstractModule {
     private static final Log LOG = LogFactory.getLog(ApiImporterMain.class);
 
+    public static final double DEFAULT_RATE_LIMIT = 5;
+    public static final int DEFAULT_RATE_BURST = 10;
+    public static final int DEFAULT_CONCURRENCY = 4;
+    private static final double MAX_RATE_LIMIT = 50;
+    private static final String STATE_DIRECTORY = ".aws-apigateway-importer";
+    private static final String CACHE_DIRECTORY = "swagger-cache";
+    private static final long MAX_CACHE_BYTES = 256L * 1024 * 1024;
+
     private final AwsConfig config;
+    private final double rateLimit;
+    private final int rateBurst;
+    private final int concurrency;
+    private final boolean force;
+    private final boolean metrics;
 
     public ApiImporterModule(AwsConfig config) {
+        this(config, DEFAULT_RATE_LIMIT, DEFAULT_RATE_BURST, DEFAULT_CONCURRENCY, false, false);
+    }
+
+    /**
+     * @param metrics if true, every call made through the API Gateway client is recorded in the bound CallMetrics
+     */
+    public ApiImporterModule(AwsConfig config, double rateLimit, int rateBurst, int concurrency, boolean force,
+                             boolean metrics) {
         this.config = config;
+        this.rateLimit = rateLimit;
+        this.rateBurst = rateBurst;
+        this.concurrency = concurrency;
+        this.force = force;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Get the directory of the state kept between runs: fingerprints, cached Swagger documents and the import server
+     * token
+     */
+    public static Path getStateDirectory() {
+        return Paths.get(System.getProperty("user.home"), STATE_DIRECTORY);
     }
 
     @Override
     protected void configure() {
-        bind(SwaggerApiImporter.class).to(ApiGatewaySdkSwaggerApiImporter.class);
+        bind(ApiFileImporter.class).to(ApiGatewaySwaggerFileImporter.class);
+        bind(SwaggerApiImporter.class).to(ApiGatewaySdkSwaggerApiImporter.class).in(Singleton.class);
+        bind(CallMetrics.class).in(Singleton.class);
         bind(String.class).annotatedWith(Names.named("profile")).toInstance(config.getProfile());
         bind(String.class).annotatedWith(Names.named("region")).toInstance(config.getRegion());
+        bindConstant().annotatedWith(Names.named("concurrency")).to(concurrency);
+        bindConstant().annotatedWith(Names.named("force")).to(force);
     }
 
     @Provides
@@ -59,9 +111,37 @@ public class ApiImporterModule extends AbstractModule {
     }
 
     @Provides
+    @Singleton
+    RateLimiter provideRateLimiter() {
+        return new AdaptiveRateLimiter(rateLimit, Math.max(rateLimit, MAX_RATE_LIMIT), rateBurst);
+    }
+
+    @Provides
+    @Singleton
+    FingerprintStore provideFingerprintStore() {
+        return new FingerprintStore(getStateDirectory());
+    }
+
+    @Provides
+    @Singleton
+    SwaggerCache provideSwaggerCache() {
+        return new SwaggerCache(getStateDirectory().resolve(CACHE_DIRECTORY), MAX_CACHE_BYTES);
+    }
+
+    @Provides
+    @Singleton
     ApiGateway provideAmazonApiGateway(AWSCredentialsProvider credsProvider,
-                                       @Named("region") String region) {
-        return new AmazonApiGateway(getEndpoint(region)).with(credsProvider).getApiGateway();
+                                       @Named("region") String region,
+                                       RateLimiter rateLimiter,
+                                       Provider<CallMetrics> callMetrics) {
+        ApiGateway client = new AmazonApiGateway(getEndpoint(region)).with(credsProvider).getApiGateway();
+
+        if (metrics) {
+            // metrics are recorded inside the rate limiter, for each attempt of a call
+            client = MetricsHalClientProxy.wrap(client, callMetrics.get());
+        }
+
+        return ThrottlingHalClientProxy.wrap(client, rateLimiter);
     }
 
     private String getEndpoint(String region) {
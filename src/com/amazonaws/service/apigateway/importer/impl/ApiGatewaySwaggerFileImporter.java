@@ -23,6 +23,10 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Optional;
 
 import static java.lang.String.format;
 
@@ -32,6 +36,12 @@ public class ApiGatewaySwaggerFileImporter implements ApiFileImporter {
     private final SwaggerParser parser;
     private final SwaggerApiImporter client;
 
+    @Inject(optional = true)
+    private SwaggerCache cache;
+
+    @Inject(optional = true)
+    private TraceRecorder trace = TraceRecorder.DISABLED;
+
     @Inject
     public ApiGatewaySwaggerFileImporter(SwaggerParser parser, SwaggerApiImporter client) {
         this.parser = parser;
@@ -43,9 +53,11 @@ public class ApiGatewaySwaggerFileImporter implements ApiFileImporter {
         LOG.info(format("Attempting to create API from Swagger definition. " +
                                 "Swagger file: %s", filePath));
 
-        final Swagger swagger = parse(filePath);
+        try (TraceRecorder.Span ignored = trace.span("import", "create " + new File(filePath).getName())) {
+            final Swagger swagger = parse(filePath);
 
-        return client.createApi(swagger, new File(filePath).getName());
+            return client.createApi(swagger, new File(filePath).getName());
+        }
     }
 
     @Override
@@ -53,14 +65,16 @@ public class ApiGatewaySwaggerFileImporter implements ApiFileImporter {
         LOG.info(format("Attempting to update API from Swagger definition. " +
                                 "API identifier: %s Swagger file: %s", apiId, filePath));
 
-        final Swagger swagger = parse(filePath);
+        try (TraceRecorder.Span ignored = trace.span("import", "update " + apiId + " from " + new File(filePath).getName())) {
+            final Swagger swagger = parse(filePath);
 
-        client.updateApi(apiId, swagger);
+            client.updateApi(apiId, swagger);
+        }
     }
 
     @Override
     public void deploy(String apiId, String deploymentStage) {
-        client.deploy(apiId, deploymentStage);
+        trace.run("deployment", "deploy " + apiId + " to " + deploymentStage, () -> client.deploy(apiId, deploymentStage));
     }
 
     @Override
@@ -69,7 +83,29 @@ public class ApiGatewaySwaggerFileImporter implements ApiFileImporter {
     }
 
     private Swagger parse(String filePath) {
-        final Swagger swagger = parser.read(filePath);
+        return trace.call("parse", "parse " + new File(filePath).getName(), () -> read(filePath));
+    }
+
+    private Swagger read(String filePath) {
+        final Path file = Paths.get(filePath).toAbsolutePath().normalize();
+        final boolean cacheable = cache != null && file.toFile().isFile();
+
+        if (cacheable) {
+            final Optional<Swagger> cached = cache.get(file);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
+        // stream the document when possible, the full parser holds the whole document in memory twice
+        final Optional<Swagger> streamed = StreamingSwaggerReader.read(filePath);
+        final Swagger swagger = streamed.orElseGet(() -> parser.read(filePath));
+
+        if (cacheable && swagger != null) {
+            // a streamed document doesn't reference other files
+            cache.put(file, streamed.isPresent() ? Collections.singleton(file) : SwaggerFileWatcher.findReferencedFiles(file),
+                      swagger);
+        }
 
         if (swagger != null && swagger.getPaths() != null) {
             LOG.info("Parsed Swagger with " + swagger.getPaths().size() + " paths");
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.amazonaws.service.apigateway.importer.ApiFileImporter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Imports the Swagger files of a manifest concurrently in a single process, and runs the jobs of the import server
+ *
+ * All imports share the importer, the API Gateway client and its rate limit. A failed import doesn't stop the
+ * others, the outcome of every import is reported in the results.
+ */
+public class BatchImporter {
+    private static final Log LOG = LogFactory.getLog(BatchImporter.class);
+
+    /**
+     * What a job does to its API, before deploying it if a stage is given
+     */
+    public enum Action {
+        CREATE, UPDATE, DEPLOY, DELETE
+    }
+
+    private final Provider<ApiFileImporter> importers;
+
+    @Inject
+    public BatchImporter(Provider<ApiFileImporter> importers) {
+        this.importers = importers;
+    }
+
+    /**
+     * Run the imports of a manifest
+     * @param jobs the maximum number of imports run at the same time
+     * @return the result of each import, in manifest order
+     */
+    public List<Result> importAll(ImportManifest manifest, int jobs) {
+        final ExecutorService executor = Executors.newFixedThreadPool(jobs, new ThreadFactoryBuilder()
+                .setNameFormat("batch-import-%d")
+                .setDaemon(true)
+                .build());
+
+        try {
+            final List<CompletableFuture<Result>> results = manifest.getImports().stream()
+                    .map(entry -> CompletableFuture.supplyAsync(() -> importApi(entry), executor))
+                    .collect(Collectors.toList());
+
+            return results.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static void logSummary(List<Result> results) {
+        LOG.info("Import summary:");
+
+        for (Result result : results) {
+            LOG.info(format("  %-8s %-12s %8.1fs  %s%s",
+                            result.isSuccess() ? "OK" : "FAILED",
+                            StringUtils.defaultString(result.getApiId(), "-"),
+                            result.getDurationMillis() / 1000.0,
+                            new File(result.getFile()).getName(),
+                            result.isSuccess() ? "" : ": " + result.getError()));
+        }
+
+        long failed = results.stream().filter(r -> !r.isSuccess()).count();
+        LOG.info(format("%d imports succeeded, %d failed", results.size() - failed, failed));
+    }
+
+    private Result importApi(ImportManifest.Entry entry) {
+        return run(entry.isCreate() ? Action.CREATE : Action.UPDATE, entry.getApiId(), entry.getFile(), entry.getStage());
+    }
+
+    /**
+     * Run a single job: create or update an API from a Swagger file, deploy an API or delete it, then deploy the API
+     * if a stage is given. A failed job is reported in its result
+     * @param apiId the API to update, deploy or delete, null to create a new API
+     * @param file the Swagger file to import, null to only deploy or delete
+     * @param stage the stage to deploy to, null to not deploy
+     */
+    public Result run(Action action, String apiId, String file, String stage) {
+        final long start = System.nanoTime();
+        final ApiFileImporter importer = importers.get();
+
+        String id = apiId;
+        try {
+            switch (action) {
+                case CREATE:
+                    id = importer.importApi(file);
+                    break;
+                case UPDATE:
+                    importer.updateApi(id, file);
+                    break;
+                case DELETE:
+                    importer.deleteApi(id);
+                    break;
+                default:
+                    break;
+            }
+
+            if (!StringUtils.isBlank(stage)) {
+                importer.deploy(id, stage);
+            }
+
+            return new Result(file, id, null, elapsedMillis(start));
+        } catch (Throwable t) {
+            LOG.error(format("Error running %s job for API %s", action.name().toLowerCase(), StringUtils.defaultString(id, file)), t);
+            return new Result(file, id, StringUtils.defaultString(t.getMessage(), t.getClass().getSimpleName()),
+                              elapsedMillis(start));
+        }
+    }
+
+    private long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * The outcome of a single import
+     */
+    public static class Result {
+        private final String file;
+        private final String apiId;
+        private final String error;
+        private final long durationMillis;
+
+        Result(String file, String apiId, String error, long durationMillis) {
+            this.file = file;
+            this.apiId = apiId;
+            this.error = error;
+            this.durationMillis = durationMillis;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public String getApiId() {
+            return apiId;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+    }
+}
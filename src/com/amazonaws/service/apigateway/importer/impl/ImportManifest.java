@@ -0,0 +1,140 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wordnik.swagger.util.Json;
+import com.wordnik.swagger.util.Yaml;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A list of Swagger files to import in a single run, read from a JSON or YAML manifest
+ *
+ * e.g.
+ *
+ * imports:
+ *   - file: orders.yaml
+ *     create: true
+ *   - file: payments.json
+ *     apiId: a1b2c3d4e5
+ *     stage: prod
+ *
+ * Relative file paths are resolved against the directory of the manifest. Each existing API can be updated by only one
+ * entry.
+ */
+public class ImportManifest {
+    private List<Entry> imports = new ArrayList<>();
+
+    public List<Entry> getImports() {
+        return imports;
+    }
+
+    public void setImports(List<Entry> imports) {
+        this.imports = imports;
+    }
+
+    public static ImportManifest load(String path) {
+        final File file = new File(path);
+        final ObjectMapper mapper = StringUtils.endsWithAny(path.toLowerCase(), ".yaml", ".yml") ? Yaml.mapper() : Json.mapper();
+
+        final ImportManifest manifest;
+        try {
+            manifest = mapper.readValue(file, ImportManifest.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read import manifest " + path, e);
+        }
+
+        if (manifest.getImports() == null || manifest.getImports().isEmpty()) {
+            throw new IllegalArgumentException("No imports found in manifest " + path);
+        }
+
+        // imports run concurrently, two imports into the same API would race on the API and its fingerprints
+        final Set<String> apiIds = new HashSet<>();
+
+        for (Entry entry : manifest.getImports()) {
+            entry.validate();
+
+            if (entry.getApiId() != null && !apiIds.add(entry.getApiId())) {
+                throw new IllegalArgumentException("Manifest " + path + " has more than one import into API " + entry.getApiId());
+            }
+
+            File swaggerFile = new File(entry.getFile());
+            if (!swaggerFile.isAbsolute()) {
+                entry.setFile(new File(file.getAbsoluteFile().getParentFile(), entry.getFile()).getPath());
+            }
+        }
+
+        return manifest;
+    }
+
+    /**
+     * A single import: a Swagger file imported into a new or an existing API, and optionally deployed to a stage
+     */
+    public static class Entry {
+        private String file;
+        private String apiId;
+        private boolean create;
+        private String stage;
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public String getApiId() {
+            return apiId;
+        }
+
+        public void setApiId(String apiId) {
+            this.apiId = apiId;
+        }
+
+        public boolean isCreate() {
+            return create;
+        }
+
+        public void setCreate(boolean create) {
+            this.create = create;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public void setStage(String stage) {
+            this.stage = stage;
+        }
+
+        void validate() {
+            if (StringUtils.isBlank(file)) {
+                throw new IllegalArgumentException("Manifest entry has no Swagger file");
+            }
+
+            if (create == (apiId != null)) {
+                throw new IllegalArgumentException("Manifest entry for " + file + " must either create a new API or update an existing API");
+            }
+        }
+    }
+}
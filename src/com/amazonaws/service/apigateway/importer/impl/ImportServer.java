@@ -0,0 +1,344 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.wordnik.swagger.util.Json;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.amazonaws.service.apigateway.importer.util.FileUtils.writeAtomically;
+import static java.lang.String.format;
+
+/**
+ * Long running import server, so that repeated imports don't pay for JVM startup, class loading, injector and
+ * client creation on every run
+ *
+ * The server listens on the loopback interface only. Jobs are posted as JSON to /jobs, queued and run with bounded
+ * concurrency, sharing the importer, the API Gateway client and its rate limit. Jobs for the same API run one at a
+ * time, in the order they were posted, as they would race on the API and its fingerprints. The request returns
+ * once the job has completed, with the outcome of the job.
+ *
+ * Jobs run with the credentials of the server, so a web page must not be able to post them. Each job must carry the
+ * random token the server writes to a file only its user can read, and be sent as application/json to a loopback
+ * host name, which rules out simple cross-site requests and DNS rebinding.
+ *
+ * e.g. POST /jobs {"action": "update", "apiId": "a1b2c3d4e5", "file": "/path/to/swagger.json", "stage": "prod"}
+ */
+public class ImportServer {
+    private static final Log LOG = LogFactory.getLog(ImportServer.class);
+
+    public static final String TOKEN_HEADER = "X-Import-Token";
+    private static final String JSON = "application/json";
+    private static final Set<String> LOOPBACK_HOSTS = new HashSet<>(Arrays.asList("localhost", "127.0.0.1", "[::1]"));
+    private static final Set<PosixFilePermission> OWNER_ONLY =
+            EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+
+    private final BatchImporter importer;
+    private final ExecutorService jobs;
+    private final ConcurrentMap<String, Lock> apiLocks = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private Path tokenFile;
+    private byte[] token;
+
+    public ImportServer(BatchImporter importer, int concurrentJobs) {
+        this.importer = importer;
+        this.jobs = Executors.newFixedThreadPool(concurrentJobs, new ThreadFactoryBuilder()
+                .setNameFormat("import-job-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * Start the server
+     * @param tokenFile the file the token jobs must carry is written to, readable by the current user only
+     */
+    public void start(int port, Path tokenFile) throws IOException {
+        this.tokenFile = tokenFile;
+        this.token = writeToken(tokenFile);
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/jobs", this::handleJob);
+        server.createContext("/health", exchange -> {
+            if (isLoopbackHost(exchange)) {
+                send(exchange, 200, "text/plain", "OK");
+            } else {
+                sendError(exchange, 403, "Requests must be sent to a loopback host");
+            }
+        });
+
+        // requests wait for their job to complete, the job queue bounds the work, not the request threads
+        server.setExecutor(Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("import-server-%d")
+                .setDaemon(true)
+                .build()));
+        server.start();
+
+        LOG.info("Import server listening on " + server.getAddress());
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public void stop() {
+        LOG.info("Stopping import server");
+
+        if (server != null) {
+            server.stop(0);
+        }
+        jobs.shutdown();
+
+        if (tokenFile != null) {
+            try {
+                Files.deleteIfExists(tokenFile);
+            } catch (IOException e) {
+                LOG.warn("Could not delete import server token " + tokenFile, e);
+            }
+        }
+    }
+
+    /*
+     * Write a new random token, replacing the token of an earlier server. The temporary file written first is only
+     * readable by its owner, the permissions are set again for file systems that don't apply them
+     */
+    private static byte[] writeToken(Path tokenFile) throws IOException {
+        final byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        final byte[] token = BaseEncoding.base16().lowerCase().encode(random).getBytes(StandardCharsets.US_ASCII);
+
+        writeAtomically(tokenFile, token);
+        if (Files.getFileAttributeView(tokenFile, PosixFileAttributeView.class) != null) {
+            Files.setPosixFilePermissions(tokenFile, OWNER_ONLY);
+        }
+
+        return token;
+    }
+
+    private void handleJob(HttpExchange exchange) throws IOException {
+        if (!isLoopbackHost(exchange)) {
+            sendError(exchange, 403, "Requests must be sent to a loopback host");
+            return;
+        }
+
+        if (!hasToken(exchange)) {
+            sendError(exchange, 401, "Missing or invalid " + TOKEN_HEADER + " header");
+            return;
+        }
+
+        if (!exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+            sendError(exchange, 405, "Jobs must be posted");
+            return;
+        }
+
+        if (!isJson(exchange)) {
+            sendError(exchange, 415, "Jobs must be sent as " + JSON);
+            return;
+        }
+
+        final Job job;
+        try {
+            job = Json.mapper().readValue(exchange.getRequestBody(), Job.class);
+            job.validate();
+        } catch (IOException | IllegalArgumentException e) {
+            sendError(exchange, 400, "Invalid job: " + e.getMessage());
+            return;
+        }
+
+        try {
+            BatchImporter.Result result = runJob(job);
+            send(exchange, result.isSuccess() ? 200 : 500, JSON, Json.mapper().writeValueAsString(result));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Import server is stopping");
+        } catch (ExecutionException e) {
+            sendError(exchange, 500, StringUtils.defaultString(e.getCause().getMessage(), e.getCause().getClass().getSimpleName()));
+        }
+    }
+
+    /*
+     * A create job has no API yet. Other jobs wait for the lock of their API on the request thread, so that the job
+     * pool only runs jobs that can make progress
+     */
+    private BatchImporter.Result runJob(Job job) throws InterruptedException, ExecutionException {
+        if (job.getApiId() == null) {
+            return submit(job);
+        }
+
+        final Lock apiLock = apiLocks.computeIfAbsent(job.getApiId(), id -> new ReentrantLock(true));
+        apiLock.lockInterruptibly();
+        try {
+            return submit(job);
+        } finally {
+            apiLock.unlock();
+        }
+    }
+
+    private BatchImporter.Result submit(Job job) throws InterruptedException, ExecutionException {
+        Future<BatchImporter.Result> result = jobs.submit(() -> importer.run(job.toAction(), job.getApiId(),
+                                                                             job.getFile(), job.getStage()));
+        return result.get();
+    }
+
+    /*
+     * A DNS rebinding attack reaches the server under the attacker's host name
+     */
+    private boolean isLoopbackHost(HttpExchange exchange) {
+        final String host = exchange.getRequestHeaders().getFirst("Host");
+        if (host == null) {
+            return false;
+        }
+
+        final int port = host.lastIndexOf(':');
+        final String name = port > host.lastIndexOf(']') ? host.substring(0, port) : host;
+        return LOOPBACK_HOSTS.contains(name.toLowerCase());
+    }
+
+    private boolean hasToken(HttpExchange exchange) {
+        final String header = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        return header != null && MessageDigest.isEqual(token, header.trim().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /*
+     * Browsers send cross-site form posts without a preflight only as text/plain, form or multipart content
+     */
+    private boolean isJson(HttpExchange exchange) {
+        final String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        return contentType != null && StringUtils.substringBefore(contentType, ";").trim().equalsIgnoreCase(JSON);
+    }
+
+    private void sendError(HttpExchange exchange, int status, String error) throws IOException {
+        send(exchange, status, JSON, Json.mapper().writeValueAsString(Collections.singletonMap("error", error)));
+    }
+
+    private void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * A job posted to the server: create, update, deploy or delete an API
+     */
+    public static class Job {
+        private String action;
+        private String apiId;
+        private String file;
+        private String stage;
+
+        public String getAction() {
+            return action;
+        }
+
+        public void setAction(String action) {
+            this.action = action;
+        }
+
+        public String getApiId() {
+            return apiId;
+        }
+
+        public void setApiId(String apiId) {
+            this.apiId = apiId;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public void setStage(String stage) {
+            this.stage = stage;
+        }
+
+        void validate() {
+            if (action == null) {
+                throw new IllegalArgumentException("No action");
+            }
+
+            switch (action) {
+                case "create":
+                    require(file, "file");
+                    break;
+                case "update":
+                    require(apiId, "apiId");
+                    require(file, "file");
+                    break;
+                case "deploy":
+                    require(apiId, "apiId");
+                    require(stage, "stage");
+                    break;
+                case "delete":
+                    require(apiId, "apiId");
+                    if (stage != null) {
+                        throw new IllegalArgumentException("A deleted API can't be deployed");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown action " + action);
+            }
+        }
+
+        BatchImporter.Action toAction() {
+            return BatchImporter.Action.valueOf(action.toUpperCase());
+        }
+
+        private void require(String value, String name) {
+            if (StringUtils.isBlank(value)) {
+                throw new IllegalArgumentException(format("The %s job requires %s", action, name));
+            }
+        }
+    }
+}
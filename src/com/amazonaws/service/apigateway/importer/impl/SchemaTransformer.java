@@ -23,19 +23,60 @@ import com.fasterxml.jackson.databind.node.TextNode;
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
 import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import com.github.fge.jsonschema.processors.syntax.SyntaxValidator;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Deserializes and transforms schema schemas into normalized form
  *
+ * A transformer is created once per import for the definitions of the API. The definitions are parsed once, and
+ * the references of each definition are resolved once and shared by all the models flattened by the transformer,
+ * so the total cost is linear in the size of the definition graph. The object mapper and the schema validator are
+ * expensive to build and are shared by all transformers.
+ *
  * @author rpgreen
  */
 public class SchemaTransformer {
     protected final static Logger LOG = Logger.getLogger(SchemaTransformer.class);
+    private static final String DEFINITIONS_POINTER = "#/definitions/";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // definitions of the API keyed by definition name
+    private final Map<String, JsonNode> models = new HashMap<>();
+
+    // definitions with references replaced by inline references, keyed by definition name
+    private final Map<String, JsonNode> definitions = new HashMap<>();
+
+    // direct references of each definition
+    private final Map<String, Set<String>> references = new HashMap<>();
+
+    // transitive references of each definition, including the definition itself
+    private final Map<String, Set<String>> closures = new HashMap<>();
+
+    /**
+     * @param models the definitions of the API, keyed by definition name
+     */
+    public SchemaTransformer(JsonNode models) {
+        models.fields().forEachRemaining(e -> this.models.put(e.getKey(), e.getValue()));
+    }
+
+    /**
+     * @param models the serialized definitions of the API
+     */
+    public SchemaTransformer(String models) {
+        this(deserialize(models));
+    }
 
     /**
      * Get a schema schema in "flattened" form whereby all dependent references are resolved
@@ -43,58 +84,103 @@ public class SchemaTransformer {
      *
      * @return the json-schema string in flattened form
      */
-    public String flatten(String model, String models) {
-        return getFlattened(deserialize(model), deserialize(models));
+    public String flatten(String model) {
+        return serializeExisting(flatten(deserialize(model)));
     }
 
-    private void buildSchemaReferenceMap(JsonNode model, JsonNode models, Map<String, String> modelMap) {
-        Map<JsonNode, JsonNode> refs = new HashMap<>();
-        findReferences(model, refs);
+    /**
+     * Get a schema in "flattened" form whereby all dependent references are resolved and included as inline
+     * schema definitions. The given schema tree is transformed in place
+     *
+     * @return the json-schema tree in flattened form
+     */
+    public JsonNode flatten(JsonNode model) {
+        return getFlattened(model);
+    }
+
+    /*
+     * Get the transitive closure of the references of a definition, memoized so that every definition is
+     * resolved only once. The reference graph is walked with a work list and a visited set, so recursive
+     * definitions terminate and deep reference chains don't use the call stack
+     */
+    private synchronized Set<String> getClosure(String schemaName) {
+        Set<String> closure = closures.get(schemaName);
 
-        for (JsonNode ref : refs.keySet()) {
-            String canonicalRef = ref.textValue();
+        if (closure == null) {
+            closure = new LinkedHashSet<>();
 
-            String schemaName = getSchemaName(canonicalRef);
+            final Deque<String> pending = new ArrayDeque<>();
+            pending.push(schemaName);
 
-            JsonNode subSchema = getSchema(schemaName, models);
+            while (!pending.isEmpty()) {
+                String name = pending.pop();
 
-            // replace reference values with inline definitions
-            replaceRef((ObjectNode) refs.get(ref), schemaName);
+                if (closure.add(name)) {
+                    getDefinition(name);
+                    for (String ref : references.get(name)) {
+                        if (!closure.contains(ref)) {
+                            pending.push(ref);
+                        }
+                    }
+                }
+            }
 
-            buildSchemaReferenceMap(subSchema, models, modelMap);
+            closures.put(schemaName, closure);
+        }
+
+        return closure;
+    }
+
+    /*
+     * Get a definition with its references replaced by inline references. The definition is shared by all
+     * flattened models and must not be modified
+     */
+    private synchronized JsonNode getDefinition(String schemaName) {
+        JsonNode definition = definitions.get(schemaName);
 
-            modelMap.put(schemaName, serializeExisting(subSchema));
+        if (definition == null) {
+            definition = getSchema(schemaName).deepCopy();
+            references.put(schemaName, replaceRefs(definition));
+            definitions.put(schemaName, definition);
         }
+
+        return definition;
     }
 
-    private JsonNode getSchema(String schemaName, JsonNode models) {
-        return models.findPath(schemaName);
+    private JsonNode getSchema(String schemaName) {
+        JsonNode schema = models.get(schemaName);
+
+        if (schema == null) {
+            throw new IllegalStateException("Invalid reference found, no definition exists with name " + schemaName);
+        }
+
+        return schema;
     }
 
-    private String getFlattened(JsonNode model, JsonNode models) {
-        HashMap<String, String> schemaMap = new HashMap<>();
+    private JsonNode getFlattened(JsonNode model) {
+        Set<String> schemaNames = new TreeSet<>();
 
-        buildSchemaReferenceMap(model, models, schemaMap);
+        for (String schemaName : replaceRefs(model)) {
+            schemaNames.addAll(getClosure(schemaName));
+        }
 
-        replaceRefs(model, schemaMap);
+        addDefinitions(model, schemaNames);
 
         if (LOG.isTraceEnabled()) {
             try {
-                LOG.trace("Flattened schema to: " + new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(model));
+                LOG.trace("Flattened schema to: " + MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(model));
             } catch (JsonProcessingException ignored){}
         }
 
-        String flattened = serializeExisting(model);
-
         validate(model);
 
-        return flattened;
+        return model;
     }
 
     private void validate(JsonNode rootNode) {
         final JsonSchemaFactory factory;
         try {
-            factory = JsonSchemaFactory.byDefault();
+            factory = ValidatorHolder.FACTORY;
             factory.getJsonSchema(rootNode);
         } catch (ProcessingException e) {
             throw new IllegalStateException("Invalid schema json was generated", e);
@@ -102,7 +188,7 @@ public class SchemaTransformer {
             return; // this should only happen from test code. JsonSchemaFactory not easily mocked
         }
 
-        ProcessingReport report = factory.getSyntaxValidator().validateSchema(rootNode);
+        ProcessingReport report = ValidatorHolder.VALIDATOR.validateSchema(rootNode);
         if (!report.isSuccess()) {
             throw new IllegalStateException("Invalid schema json was generated" + report.iterator().next().getMessage());
         }
@@ -111,36 +197,62 @@ public class SchemaTransformer {
     /*
      * Add schema references as inline definitions to the root schema
      */
-    private void replaceRefs(JsonNode root, HashMap<String, String> schemaMap) {
+    private void addDefinitions(JsonNode root, Set<String> schemaNames) {
 
         ObjectNode definitionsNode = new ObjectNode(JsonNodeFactory.instance);
 
-        for (Map.Entry<String, String> entry : schemaMap.entrySet()) {
-            JsonNode schemaNode = deserialize(entry.getValue());
-            definitionsNode.set(entry.getKey(), schemaNode);
+        for (String schemaName : schemaNames) {
+            definitionsNode.set(schemaName, getDefinition(schemaName));
         }
 
         ((ObjectNode)root).set("definitions", definitionsNode);
     }
 
+    /*
+     * Replace all references in the schema tree with inline references
+     * Returns the names of the referenced schemas
+     */
+    private Set<String> replaceRefs(JsonNode node) {
+        List<JsonNode> refParents = new ArrayList<>();
+        findReferences(node, refParents);
+
+        Set<String> schemaNames = new LinkedHashSet<>();
+        for (JsonNode parent : refParents) {
+            String schemaName = getSchemaName(parent.get("$ref").textValue());
+
+            replaceRef((ObjectNode) parent, schemaName);
+            schemaNames.add(schemaName);
+        }
+
+        return schemaNames;
+    }
+
     /*
      * Replace a reference node with an inline reference
      */
     private void replaceRef(ObjectNode parent, String schemaName) {
-        parent.set("$ref", new TextNode("#/definitions/" + schemaName));
+        parent.set("$ref", new TextNode(DEFINITIONS_POINTER + schemaName.replace("~", "~0").replace("/", "~1")));
     }
 
     /*
-     * Find all reference node in the schema tree. Build a map of the reference node to its parent
+     * Find all reference node in the schema tree. Collect the parent of each reference node
      */
-    private void findReferences(JsonNode node, Map<JsonNode, JsonNode> refNodes) {
-        JsonNode refNode = node.path("$ref");
-        if (!refNode.isMissingNode()) {
-            refNodes.put(refNode, node);
-        }
-
-        for (JsonNode child : node) {
-            findReferences(child, refNodes);
+    private void findReferences(JsonNode root, List<JsonNode> refParents) {
+        final Deque<JsonNode> pending = new ArrayDeque<>();
+        pending.push(root);
+
+        while (!pending.isEmpty()) {
+            JsonNode node = pending.pop();
+
+            if (node.has("$ref")) {
+                refParents.add(node);
+            }
+
+            for (JsonNode child : node) {
+                if (child.isContainerNode()) {
+                    pending.push(child);
+                }
+            }
         }
     }
 
@@ -148,10 +260,9 @@ public class SchemaTransformer {
     * Attempt to serialize an existing schema
     * If this fails something is seriously wrong, because this schema has already been saved by the control plane
     */
-    JsonNode deserialize(String schemaText) {
+    static JsonNode deserialize(String schemaText) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.readTree(schemaText);
+            return MAPPER.readTree(schemaText);
         } catch (IOException e) {
             throw new IllegalStateException("Invalid schema found. Could not deserialize schema: " + schemaText, e);
         }
@@ -161,19 +272,35 @@ public class SchemaTransformer {
      * Attempt to serialize an existing schema
      * If this fails something is seriously wrong, because this schema has already been saved by the control plane
      */
-    private String serializeExisting(JsonNode root) {
+    private static String serializeExisting(JsonNode root) {
         try {
-            return new ObjectMapper().writeValueAsString(root);
+            return MAPPER.writeValueAsString(root);
         } catch (JsonProcessingException e) {
             throw new IllegalStateException("Could not serialize generated schema json", e);
         }
     }
 
+    /**
+     * Get the object mapper shared by the whole process. The mapper is safe for concurrent use and must not be
+     * reconfigured
+     */
+    public static ObjectMapper getMapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Get the name of the schema a reference points to. JSON pointer references to definitions,
+     * e.g. #/definitions/Foo, are decoded, for any other reference the last path segment is used
+     */
     public static String getSchemaName(String refVal) {
         String schemaName;
         try {
-            schemaName = refVal.substring(refVal.lastIndexOf("/") + 1,
-                                          refVal.length());
+            if (refVal.startsWith(DEFINITIONS_POINTER)) {
+                schemaName = refVal.substring(DEFINITIONS_POINTER.length()).replace("~1", "/").replace("~0", "~");
+            } else {
+                schemaName = refVal.substring(refVal.lastIndexOf("/") + 1,
+                                              refVal.length());
+            }
         } catch (Throwable t) {
             throw new IllegalStateException("Invalid reference found: " + refVal, t);
         }
@@ -193,4 +320,12 @@ public class SchemaTransformer {
         return apiId;
     }
 
+    /*
+     * Lazily builds the schema factory and validator on first use. Both are immutable and safe for concurrent use
+     */
+    private static class ValidatorHolder {
+        static final JsonSchemaFactory FACTORY = JsonSchemaFactory.byDefault();
+        static final SyntaxValidator VALIDATOR = FACTORY.getSyntaxValidator();
+    }
+
 }
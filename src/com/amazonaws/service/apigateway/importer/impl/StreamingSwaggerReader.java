@@ -0,0 +1,181 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.wordnik.swagger.models.Model;
+import com.wordnik.swagger.models.Path;
+import com.wordnik.swagger.models.Swagger;
+import com.wordnik.swagger.util.Json;
+import com.wordnik.swagger.util.Yaml;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads a Swagger 2.0 document from a local file with a streaming parser
+ *
+ * The full parser reads the whole document into a json tree before converting it to the swagger models, so its peak
+ * heap holds the document twice. Here each path and each definition is read and converted on its own, so only one
+ * of them is held as a tree at a time, and the strings of the document are interned so that the names, types and
+ * content types repeated across the document are held once.
+ *
+ * Documents that need more than reading, i.e. Swagger 1.2 documents or documents with references to other files,
+ * are left to the full parser.
+ */
+public class StreamingSwaggerReader {
+    private static final Log LOG = LogFactory.getLog(StreamingSwaggerReader.class);
+    private static final String SWAGGER_VERSION = "2.0";
+
+    private final ObjectMapper mapper = Json.mapper();
+    private final JsonNodeFactory nodes = JsonNodeFactory.instance;
+    private final Interner<String> strings = Interners.newStrongInterner();
+    private boolean externalRefs;
+
+    private StreamingSwaggerReader() {
+    }
+
+    /**
+     * Read a Swagger document
+     * @return the swagger, or empty if the document must be read with the full parser
+     */
+    public static Optional<Swagger> read(String filePath) {
+        final File file = new File(filePath);
+
+        if (!file.isFile()) {
+            return Optional.empty();
+        }
+
+        try (JsonParser parser = getFactory(filePath).createParser(file)) {
+            return new StreamingSwaggerReader().read(parser);
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.warn("Could not stream Swagger file " + filePath + ", using the full parser", e);
+            return Optional.empty();
+        }
+    }
+
+    private Optional<Swagger> read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return Optional.empty();
+        }
+
+        final ObjectNode document = nodes.objectNode();
+        final Map<String, Path> paths = new LinkedHashMap<>();
+        final Map<String, Model> definitions = new LinkedHashMap<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            parser.nextToken();
+
+            switch (field) {
+                case "paths":
+                    readEntries(parser, (name, node) -> paths.put(name, mapper.convertValue(node, Path.class)));
+                    break;
+                case "definitions":
+                    readEntries(parser, (name, node) -> definitions.put(name, mapper.convertValue(node, Model.class)));
+                    break;
+                default:
+                    document.set(field, readTree(parser));
+                    break;
+            }
+        }
+
+        if (!SWAGGER_VERSION.equals(document.path("swagger").asText()) || externalRefs) {
+            return Optional.empty();
+        }
+
+        final Swagger swagger = mapper.convertValue(document, Swagger.class);
+        swagger.setPaths(paths.isEmpty() ? null : paths);
+        swagger.setDefinitions(definitions.isEmpty() ? null : definitions);
+
+        return Optional.of(swagger);
+    }
+
+    /*
+     * Read the entries of an object one at a time, e.g. the paths of the document
+     */
+    private void readEntries(JsonParser parser, EntryConsumer consumer) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = strings.intern(parser.getCurrentName());
+            parser.nextToken();
+            consumer.accept(name, readTree(parser));
+        }
+    }
+
+    private JsonNode readTree(JsonParser parser) throws IOException {
+        switch (parser.getCurrentToken()) {
+            case START_OBJECT:
+                final ObjectNode object = nodes.objectNode();
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String name = strings.intern(parser.getCurrentName());
+                    parser.nextToken();
+
+                    final JsonNode value = readTree(parser);
+                    if (name.equals("$ref") && value.isTextual() && !value.textValue().startsWith("#")) {
+                        externalRefs = true;
+                    }
+                    object.set(name, value);
+                }
+                return object;
+            case START_ARRAY:
+                final ArrayNode array = nodes.arrayNode();
+
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    array.add(readTree(parser));
+                }
+                return array;
+            case VALUE_STRING:
+                return nodes.textNode(strings.intern(parser.getText()));
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return nodes.booleanNode(parser.getBooleanValue());
+            case VALUE_NULL:
+                return nodes.nullNode();
+            default:
+                return mapper.readTree(parser);
+        }
+    }
+
+    private static JsonFactory getFactory(String filePath) {
+        return StringUtils.endsWithAny(filePath.toLowerCase(), ".yaml", ".yml")
+                ? Yaml.mapper().getFactory() : Json.mapper().getFactory();
+    }
+
+    @FunctionalInterface
+    private interface EntryConsumer {
+        void accept(String name, JsonNode node) throws IOException;
+    }
+}
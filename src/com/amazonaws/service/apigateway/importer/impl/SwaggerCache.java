@@ -0,0 +1,214 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.hash.Hashing;
+import com.wordnik.swagger.models.Swagger;
+import com.wordnik.swagger.util.Json;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.amazonaws.service.apigateway.importer.util.FileUtils.writeAtomically;
+
+/**
+ * Local cache of parsed and resolved Swagger documents, stored in Smile (binary json), one file per document
+ *
+ * Entries are keyed by the path and a hash of the content of the Swagger file, and hold the hashes of the other local
+ * files it references, so that a change to any of the files is a miss. Identical files in different directories can
+ * reference different files and don't share an entry. The total size of the cache is bounded, the least
+ * recently used entries are evicted first.
+ */
+public class SwaggerCache {
+    private static final Log LOG = LogFactory.getLog(SwaggerCache.class);
+    private static final SmileFactory SMILE = new SmileFactory();
+    private static final String EXTENSION = ".smile";
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+    private final long maxBytes;
+
+    public SwaggerCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get the cached document for a Swagger file, if neither the file nor the files it references changed
+     */
+    public Optional<Swagger> get(Path file) {
+        final Path entryFile;
+        try {
+            entryFile = getEntryFile(file);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+
+        if (!Files.exists(entryFile)) {
+            return Optional.empty();
+        }
+
+        try (JsonParser parser = SMILE.createParser(entryFile.toFile())) {
+            final Entry entry = Json.mapper().readValue(parser, Entry.class);
+
+            if (!entry.isUnchanged()) {
+                LOG.debug("Referenced files of " + file + " changed, ignoring cached document");
+                return Optional.empty();
+            }
+
+            // the modification time of an entry is its last use
+            Files.setLastModifiedTime(entryFile, FileTime.fromMillis(System.currentTimeMillis()));
+            LOG.info("Using cached document for Swagger file " + file);
+            return Optional.of(entry.getSwagger());
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not read cached document " + entryFile + ", removing it", e);
+            deleteQuietly(entryFile);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Cache the document of a Swagger file
+     * @param referencedFiles the other local files referenced by the Swagger file
+     */
+    public void put(Path file, Set<Path> referencedFiles, Swagger swagger) {
+        try {
+            final Map<String, String> hashes = new LinkedHashMap<>();
+            for (Path referenced : referencedFiles) {
+                if (!referenced.equals(file)) {
+                    hashes.put(referenced.toString(), hash(referenced));
+                }
+            }
+
+            // concurrent runs never read a partial entry
+            writeAtomically(getEntryFile(file), out -> {
+                try (JsonGenerator generator = SMILE.createGenerator(out, JsonEncoding.UTF8)) {
+                    Json.mapper().writeValue(generator, new Entry(hashes, swagger));
+                }
+            });
+
+            evict();
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not cache document of Swagger file " + file, e);
+        }
+    }
+
+    /*
+     * Remove the least recently used entries until the cache fits in its maximum size
+     */
+    private void evict() throws IOException {
+        final List<Path> entries;
+        try (Stream<Path> files = Files.list(directory)) {
+            entries = files.filter(f -> f.getFileName().toString().endsWith(EXTENSION))
+                    .sorted(Comparator.comparing(SwaggerCache::getLastModifiedTime).reversed())
+                    .collect(Collectors.toList());
+        }
+
+        long size = 0;
+        for (Path entry : entries) {
+            size += Files.size(entry);
+
+            if (size > maxBytes) {
+                LOG.debug("Evicting cached document " + entry);
+                deleteQuietly(entry);
+            }
+        }
+    }
+
+    private Path getEntryFile(Path file) throws IOException {
+        final String key = file.toAbsolutePath().normalize() + "\n" + hash(file);
+        return directory.resolve("v" + FORMAT_VERSION + "-" + Hashing.sha256().hashString(key, StandardCharsets.UTF_8) + EXTENSION);
+    }
+
+    static String hash(Path file) throws IOException {
+        return com.google.common.io.Files.asByteSource(file.toFile()).hash(Hashing.sha256()).toString();
+    }
+
+    private static FileTime getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     * A cached document, with the hashes of the files it references keyed by path
+     */
+    public static class Entry {
+        private Map<String, String> files;
+        private Swagger swagger;
+
+        public Entry() {
+        }
+
+        Entry(Map<String, String> files, Swagger swagger) {
+            this.files = files;
+            this.swagger = swagger;
+        }
+
+        public Map<String, String> getFiles() {
+            return files;
+        }
+
+        public void setFiles(Map<String, String> files) {
+            this.files = files;
+        }
+
+        public Swagger getSwagger() {
+            return swagger;
+        }
+
+        public void setSwagger(Swagger swagger) {
+            this.swagger = swagger;
+        }
+
+        boolean isUnchanged() throws IOException {
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                Path path = Paths.get(file.getKey());
+
+                if (!Files.exists(path) || !hash(path).equals(file.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.wordnik.swagger.util.Json;
+import com.wordnik.swagger.util.Yaml;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Watches a Swagger file and the local files it references, and runs an action when their content changes
+ *
+ * Changes are debounced, the action runs once the files have been quiet for the debounce period, and only if their
+ * content actually changed. Editors that save a file several times, or save it by replacing it, trigger a single run.
+ */
+public class SwaggerFileWatcher implements AutoCloseable {
+    private static final Log LOG = LogFactory.getLog(SwaggerFileWatcher.class);
+
+    private final Path file;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Map<Path, WatchKey> watchedDirectories = new HashMap<>();
+
+    private Set<Path> watchedFiles;
+    private String fingerprint;
+
+    public SwaggerFileWatcher(Path file, long debounceMillis) throws IOException {
+        this.file = file.toAbsolutePath().normalize();
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Watch the files until the thread is interrupted. A failure to read the files or of the action is logged, and
+     * watching continues
+     */
+    public void watch(Runnable onChange) throws IOException, InterruptedException {
+        refresh();
+        LOG.info("Watching " + file + " for changes");
+
+        while (!Thread.currentThread().isInterrupted()) {
+            if (!isWatchedFileChanged(watchService.take())) {
+                continue;
+            }
+
+            // wait for the files to be quiet before importing
+            WatchKey key;
+            while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                key.pollEvents();
+                key.reset();
+            }
+
+            final String previous = fingerprint;
+            try {
+                refresh();
+            } catch (IOException e) {
+                LOG.error("Error reading " + file + " and the files it references, waiting for the next change", e);
+                continue;
+            }
+
+            if (fingerprint.equals(previous)) {
+                LOG.debug("Content of " + file + " is unchanged");
+                continue;
+            }
+
+            LOG.info("Detected change to " + file);
+            try {
+                onChange.run();
+            } catch (Throwable t) {
+                LOG.error("Error importing API from Swagger, waiting for the next change", t);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /*
+     * Find the files to watch, register their directories and fingerprint their content
+     */
+    private void refresh() throws IOException {
+        watchedFiles = findReferencedFiles(file);
+
+        for (Path watched : watchedFiles) {
+            final Path directory = watched.getParent();
+            final WatchKey key = watchedDirectories.get(directory);
+
+            // the key of a deleted directory is cancelled, the directory is registered again once it is back
+            if ((key == null || !key.isValid()) && Files.isDirectory(directory)) {
+                watchedDirectories.put(directory, directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY));
+            }
+        }
+
+        final Hasher hasher = Hashing.sha256().newHasher();
+        for (Path watched : watchedFiles) {
+            if (Files.exists(watched)) {
+                hasher.putBytes(Files.readAllBytes(watched));
+            }
+        }
+        fingerprint = hasher.hash().toString();
+    }
+
+    private boolean isWatchedFileChanged(WatchKey key) {
+        final Path directory = (Path) key.watchable();
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path && watchedFiles.contains(directory.resolve((Path) event.context()))) {
+                changed = true;
+            }
+        }
+
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Get a Swagger file and all local files it references, directly or through other referenced files
+     */
+    static Set<Path> findReferencedFiles(Path file) {
+        final Set<Path> files = new LinkedHashSet<>();
+        final Deque<Path> pending = new ArrayDeque<>();
+        pending.push(file.toAbsolutePath().normalize());
+
+        while (!pending.isEmpty()) {
+            Path current = pending.pop();
+
+            if (files.add(current)) {
+                for (String ref : findExternalReferences(current)) {
+                    pending.push(current.resolveSibling(ref).normalize());
+                }
+            }
+        }
+
+        return files;
+    }
+
+    /*
+     * Get the file part of the references to other local files, e.g. common.yaml#/definitions/Error
+     */
+    private static Set<String> findExternalReferences(Path file) {
+        final Set<String> refs = new LinkedHashSet<>();
+
+        final JsonNode root;
+        try {
+            root = getMapper(file).readTree(file.toFile());
+        } catch (IOException e) {
+            LOG.warn("Could not read references from " + file, e);
+            return refs;
+        }
+
+        final Deque<JsonNode> pending = new ArrayDeque<>();
+        pending.push(root);
+
+        while (!pending.isEmpty()) {
+            JsonNode node = pending.pop();
+
+            JsonNode ref = node.get("$ref");
+            if (ref != null && ref.isTextual()) {
+                String refFile = StringUtils.substringBefore(ref.textValue(), "#");
+                if (!refFile.isEmpty() && !refFile.contains("://")) {
+                    refs.add(refFile);
+                }
+            }
+
+            node.forEach(child -> {
+                if (child.isContainerNode()) {
+                    pending.push(child);
+                }
+            });
+        }
+
+        return refs;
+    }
+
+    private static ObjectMapper getMapper(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return StringUtils.endsWithAny(name, ".yaml", ".yml") ? Yaml.mapper() : Json.mapper();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import static com.amazonaws.service.apigateway.importer.util.FileUtils.writeAtomically;
+
+/**
+ * Records a timing trace of the phases of an import, written in the Chrome trace event format
+ *
+ * Each span is recorded on the thread it ran on. Spans opened inside another span on the same thread are nested
+ * under it, so the phases of an import contain the work done for each path, model and operation, and the operations
+ * run in parallel appear on the threads of the scheduler. Open the trace in chrome://tracing or ui.perfetto.dev.
+ *
+ * The {@link #DISABLED} recorder records nothing and is used unless a trace was requested.
+ */
+public class TraceRecorder {
+    private static final Log LOG = LogFactory.getLog(TraceRecorder.class);
+    private static final ObjectMapper MAPPER = SchemaTransformer.getMapper();
+
+    public static final TraceRecorder DISABLED = new TraceRecorder(false);
+
+    private static final Span NO_SPAN = () -> { };
+
+    private final boolean enabled;
+    private final long origin = System.nanoTime();
+    private final ConcurrentLinkedQueue<Event> events = new ConcurrentLinkedQueue<>();
+
+    private TraceRecorder(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static TraceRecorder create() {
+        return new TraceRecorder(true);
+    }
+
+    /**
+     * A span of time, recorded when closed
+     */
+    @FunctionalInterface
+    public interface Span extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Open a span on the current thread
+     * @param category the phase of the import, e.g. models
+     * @param name what the span covers, e.g. model Pet
+     */
+    public Span span(String category, String name) {
+        if (!enabled) {
+            return NO_SPAN;
+        }
+
+        final Thread thread = Thread.currentThread();
+        final long start = System.nanoTime();
+        return () -> events.add(new Event(category, name, thread.getId(), thread.getName(), start - origin,
+                                          System.nanoTime() - start));
+    }
+
+    public void run(String category, String name, Runnable work) {
+        try (Span ignored = span(category, name)) {
+            work.run();
+        }
+    }
+
+    public <T> T call(String category, String name, Supplier<T> work) {
+        try (Span ignored = span(category, name)) {
+            return work.get();
+        }
+    }
+
+    public List<Event> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * Write the trace as a JSON object of trace events, with complete ("X") events for the spans and metadata events
+     * naming the threads
+     */
+    public void write(Path file) throws IOException {
+        final List<Map<String, Object>> traceEvents = new ArrayList<>();
+        final Map<Long, String> threads = new LinkedHashMap<>();
+
+        for (Event event : events) {
+            threads.putIfAbsent(event.getThreadId(), event.getThreadName());
+
+            final Map<String, Object> json = new LinkedHashMap<>();
+            json.put("name", event.getName());
+            json.put("cat", event.getCategory());
+            json.put("ph", "X");
+            json.put("ts", event.getStartNanos() / 1000.0);
+            json.put("dur", event.getDurationNanos() / 1000.0);
+            json.put("pid", 1);
+            json.put("tid", event.getThreadId());
+            traceEvents.add(json);
+        }
+
+        threads.forEach((threadId, threadName) -> {
+            final Map<String, Object> json = new LinkedHashMap<>();
+            json.put("name", "thread_name");
+            json.put("ph", "M");
+            json.put("pid", 1);
+            json.put("tid", threadId);
+            json.put("args", Collections.singletonMap("name", threadName));
+            traceEvents.add(json);
+        });
+
+        final Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceEvents", traceEvents);
+        trace.put("displayTimeUnit", "ms");
+
+        // a run stopped while the trace is written never leaves a truncated trace
+        writeAtomically(file, out -> MAPPER.writeValue(out, trace));
+
+        LOG.info("Wrote import trace with " + traceEvents.size() + " events to " + file);
+    }
+
+    /**
+     * A recorded span
+     */
+    public static class Event {
+        private final String category;
+        private final String name;
+        private final long threadId;
+        private final String threadName;
+        private final long startNanos;
+        private final long durationNanos;
+
+        Event(String category, String name, long threadId, String threadName, long startNanos, long durationNanos) {
+            this.category = category;
+            this.name = name;
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * Get the start of the span relative to the creation of the recorder
+         */
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+    }
+}
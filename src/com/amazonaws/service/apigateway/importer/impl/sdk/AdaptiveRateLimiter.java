@@ -0,0 +1,118 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.AmazonClientException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Token bucket rate limiter which adapts its rate to the throttling limits of the account
+ *
+ * The rate is increased additively on every successful call, up to the maximum rate, and halved whenever a call
+ * is throttled (AIMD). Calls are never rejected, callers block until a token is available.
+ */
+public class AdaptiveRateLimiter implements RateLimiter {
+    private static final Log LOG = LogFactory.getLog(AdaptiveRateLimiter.class);
+
+    private static final double MIN_RATE = 0.5;
+    private static final double RATE_INCREASE = 0.05;
+    private static final double RATE_DECREASE_FACTOR = 0.5;
+    private static final long DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double maxRate;
+    private final int burst;
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long lastDecrease;
+
+    /**
+     * @param rate the initial number of calls permitted per second
+     * @param maxRate the maximum number of calls per second the limiter will adapt to
+     * @param burst the maximum number of calls permitted without waiting
+     */
+    public AdaptiveRateLimiter(double rate, double maxRate, int burst) {
+        if (rate <= 0 || maxRate < rate || burst < 1) {
+            throw new IllegalArgumentException(format("Invalid rate limit configuration. " +
+                                                              "rate: %s max rate: %s burst: %s", rate, maxRate, burst));
+        }
+
+        this.rate = rate;
+        this.maxRate = maxRate;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+        this.lastDecrease = lastRefill - DECREASE_INTERVAL_NANOS;
+    }
+
+    @Override
+    public void acquire() {
+        long waitNanos;
+
+        // reserve a token, the balance goes negative when callers have to wait for the bucket to refill
+        synchronized (this) {
+            refill(System.nanoTime());
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / rate * TimeUnit.SECONDS.toNanos(1));
+        }
+
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                // an interrupted import must not keep sending calls past the limit
+                Thread.currentThread().interrupt();
+                throw new AmazonClientException("Interrupted while waiting for the request rate limit", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onSuccess() {
+        rate = Math.min(maxRate, rate + RATE_INCREASE);
+    }
+
+    @Override
+    public synchronized void onThrottled() {
+        long now = System.nanoTime();
+
+        // concurrent calls are usually throttled together, only back off once per interval
+        if (now - lastDecrease < DECREASE_INTERVAL_NANOS) {
+            return;
+        }
+
+        refill(now);
+        rate = Math.max(MIN_RATE, rate * RATE_DECREASE_FACTOR);
+        tokens = Math.min(tokens, 0);
+        lastDecrease = now;
+
+        LOG.info(format("Throttled by API Gateway, reducing request rate to %.2f/s", rate));
+    }
+
+    synchronized double getRate() {
+        return rate;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefill) * rate / TimeUnit.SECONDS.toNanos(1));
+        lastRefill = now;
+    }
+}
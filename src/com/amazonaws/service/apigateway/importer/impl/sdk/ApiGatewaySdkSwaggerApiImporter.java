@@ -16,24 +16,30 @@ package com.amazonaws.service.apigateway.importer.impl.sdk;
 
 import com.amazonaws.service.apigateway.importer.SwaggerApiImporter;
 import com.amazonaws.service.apigateway.importer.impl.SchemaTransformer;
+import com.amazonaws.service.apigateway.importer.impl.TraceRecorder;
+import com.amazonaws.service.apigateway.importer.util.PatchAccumulator;
 import com.amazonaws.services.apigateway.model.ApiGateway;
 import com.amazonaws.services.apigateway.model.CreateDeploymentInput;
 import com.amazonaws.services.apigateway.model.CreateModelInput;
 import com.amazonaws.services.apigateway.model.CreateResourceInput;
 import com.amazonaws.services.apigateway.model.CreateRestApiInput;
 import com.amazonaws.services.apigateway.model.Integration;
+import com.amazonaws.services.apigateway.model.IntegrationResponse;
 import com.amazonaws.services.apigateway.model.IntegrationType;
 import com.amazonaws.services.apigateway.model.Method;
 import com.amazonaws.services.apigateway.model.MethodResponse;
 import com.amazonaws.services.apigateway.model.Model;
-import com.amazonaws.services.apigateway.model.PatchDocument;
+import com.amazonaws.services.apigateway.model.PatchOperation;
 import com.amazonaws.services.apigateway.model.PutIntegrationInput;
 import com.amazonaws.services.apigateway.model.PutIntegrationResponseInput;
 import com.amazonaws.services.apigateway.model.PutMethodInput;
 import com.amazonaws.services.apigateway.model.PutMethodResponseInput;
 import com.amazonaws.services.apigateway.model.Resource;
 import com.amazonaws.services.apigateway.model.RestApi;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import com.wordnik.swagger.models.Operation;
 import com.wordnik.swagger.models.Path;
 import com.wordnik.swagger.models.RefModel;
@@ -49,63 +55,125 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.io.IOException;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static com.amazonaws.service.apigateway.importer.util.PatchUtils.createAddOperation;
+import static com.amazonaws.service.apigateway.importer.util.PatchUtils.createPatchAccumulator;
 import static com.amazonaws.service.apigateway.importer.util.PatchUtils.createPatchDocument;
-import static com.amazonaws.service.apigateway.importer.util.PatchUtils.createRemoveOperation;
 import static com.amazonaws.service.apigateway.importer.util.PatchUtils.createReplaceOperation;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 
+/**
+ * Imports a swagger into API Gateway
+ *
+ * The importer holds no state of its own, the state of each import is kept in an {@link ImportContext} passed through
+ * the import. A single importer is safe to share across threads and can run concurrent imports.
+ */
 public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
 
     private static final Log LOG = LogFactory.getLog(ApiGatewaySdkSwaggerApiImporter.class);
     private static final String DEFAULT_PRODUCES_CONTENT_TYPE = "application/json";
     private static final String EXTENSION_AUTH = "x-amazon-apigateway-auth";
     private static final String EXTENSION_INTEGRATION = "x-amazon-apigateway-integration";
+    private static final int DEFAULT_CONCURRENCY = 4;
 
     @Inject
     private ApiGateway apiGateway;
-    private Swagger swagger;
+
+    @Inject(optional = true)
+    @Named("concurrency")
+    private int concurrency = DEFAULT_CONCURRENCY;
+
+    @Inject(optional = true)
+    private FingerprintStore fingerprintStore;
+
+    @Inject(optional = true)
+    @Named("force")
+    private boolean force;
+
+    @Inject(optional = true)
+    private TraceRecorder trace = TraceRecorder.DISABLED;
 
     @Override
     public String createApi(Swagger swagger, String name) {
-        this.swagger = swagger;
+        final ImportContext definition = createContext(swagger, new FingerprintStore.Fingerprints(emptyMap()));
 
-        final RestApi api = createApi(getApiName(swagger, name), swagger.getInfo().getDescription());
+        final RestApi api = trace.call("api", "create api", () -> createApi(getApiName(swagger, name), swagger.getInfo().getDescription()));
 
-        try {
-            final Resource rootResource = getRootResource(api).get();
-            deleteDefaultModels(api);
-            createModels(api, swagger.getDefinitions(), swagger.getProduces());
-            createResources(api, rootResource, swagger.getBasePath(), swagger.getProduces(), swagger.getPaths(), true);
+        try (OperationScheduler scheduler = new OperationScheduler(concurrency)) {
+            final ImportContext context = definition.withApi(new ResourceIndex(api), new ModelCatalog(api), null);
+
+            final Resource rootResource = getRootResource(context).get();
+            trace.run("models", "delete default models", () -> deleteDefaultModels(context));
+
+            // models, resources and methods are created concurrently, see the model, resource and method spans
+            try (TraceRecorder.Span ignored = trace.span("sync", "sync models, resources and methods")) {
+                // methods wait for their resource and for all models they may reference, everything else runs in parallel
+                CompletableFuture<Void> models = createModels(context, scheduler, api, swagger.getDefinitions(), swagger.getProduces());
+                Map<String, CompletableFuture<Resource>> resourceTree =
+                        createResources(context, scheduler, api, rootResource);
+                createMethods(context, scheduler, api, resourceTree, models, swagger.getProduces());
+
+                scheduler.awaitAll();
+            }
         } catch (Throwable t) {
             LOG.error("Error creating API, rolling back", t);
-            rollback(api);
+            trace.run("cleanup", "rollback", () -> rollback(api));
             throw t;
         }
+
+        saveFingerprints(api.getId(), definition.getFingerprints());
         return api.getId();
     }
 
     @Override
     public void updateApi(String apiId, Swagger swagger) {
-        this.swagger = swagger;
+        final ImportContext definition = createContext(swagger, fingerprintStore != null
+                ? fingerprintStore.load(apiId, force) : new FingerprintStore.Fingerprints(emptyMap()));
 
         RestApi api = getApi(apiId);
-        Optional<Resource> rootResource = getRootResource(api);
 
-        updateModels(api, swagger.getDefinitions(), swagger.getProduces());
-        updateResources(api, rootResource.get(), swagger.getBasePath(), swagger.getPaths(), swagger.getProduces());
-        updateMethods(api, swagger.getBasePath(), swagger.getPaths(), swagger.getProduces());
+        try (OperationScheduler scheduler = new OperationScheduler(concurrency)) {
+            // existing state is read once up front, the update and cleanup logic reads it from the snapshot. The
+            // responses and integration of a method are only read if its fingerprint changed
+            final ApiSnapshot snapshot = trace.call("snapshot", "read api state", () -> ApiSnapshot.crawl(api, scheduler));
+            final ImportContext context = definition.withApi(new ResourceIndex(snapshot.getResources()),
+                                                             new ModelCatalog(snapshot.getModels()), snapshot);
+
+            Optional<Resource> rootResource = getRootResource(context);
+
+            updateModels(context, scheduler, api, swagger.getDefinitions(), swagger.getProduces());
+            updateResources(context, scheduler, api, rootResource.get());
+            updateMethods(context, scheduler, api, swagger.getProduces());
+        } finally {
+            // components applied before a failure are saved too, the failed ones are imported again next time
+            saveFingerprints(apiId, definition.getFingerprints());
+        }
+    }
+
+    /*
+     * Create the context of an import, deriving everything needed from the swagger. The schemas of all models are
+     * generated and validated here, so that an invalid model fails the import before the first remote call
+     */
+    ImportContext createContext(Swagger swagger, FingerprintStore.Fingerprints fingerprints) {
+        final ImportContext context = new ImportContext(swagger,
+                                                        buildOperations(swagger.getBasePath(), swagger.getPaths()),
+                                                        createSchemaTransformer(swagger.getDefinitions()),
+                                                        fingerprints);
+        trace.run("schemas", "flatten schemas", () -> generateSchemas(context));
+        return context;
     }
 
     @Override
@@ -146,83 +214,64 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
         return apiGateway.getRestApiById(id);
     }
 
-    private Resource createResource(RestApi api, String parentResourceId, String pathPart) {
+    private Resource createResource(ImportContext context, RestApi api, String parentResourceId, String pathPart) {
         CreateResourceInput input = new CreateResourceInput();
         input.setPathPart(pathPart);
 
         Resource resource = api.getResourceById(parentResourceId);
 
-        return resource.createResource(input);
+        Resource created = resource.createResource(input);
+        context.getResources().add(created);
+        return created;
     }
 
-    private void createModel(RestApi api, String modelName, String description, String schema, String modelContentType) {
+    private void createModel(ImportContext context, RestApi api, String modelName, String description, JsonNode schema,
+                             String modelContentType) {
 
         CreateModelInput input = new CreateModelInput();
 
         input.setName(modelName);
         input.setDescription(description);
         input.setContentType(modelContentType);
-        input.setSchema(schema);
+        final String schemaText = serializeSchema(schema);
+        input.setSchema(schemaText);
 
-        api.createModel(input);
+        context.getModels().add(api.createModel(input));
+        context.getFingerprints().record(getModelKey(modelName), FingerprintStore.hash(schemaText));
     }
 
-    private void deleteDefaultModels(RestApi api) {
-        api.getModels().getItem().stream().forEach(model -> {
+    private void deleteDefaultModels(ImportContext context) {
+        context.getModels().getAll().forEach(model -> {
             LOG.info("Removing default model " + model.getName());
             try {
                 model.deleteModel();
+                context.getModels().remove(model);
             } catch (Throwable ignored) {} // todo: temporary catch until API fix
         });
     }
 
-    private Optional<Resource> getResource(RestApi api, String parentResourceId, String pathPart) {
-        for (Resource r : api.getResources().getItem()) {
-            if (pathEquals(pathPart, r.getPathPart()) && r.getParentId().equals(parentResourceId)) {
-                return Optional.of(r);
-            }
-        }
-
-        return Optional.empty();
-    }
-
-    private boolean pathEquals(String p1, String p2) {
-        return (StringUtils.isBlank(p1) && StringUtils.isBlank(p2)) || p1.equals(p2);
+    private Optional<Resource> getResource(ImportContext context, String parentResourceId, String pathPart) {
+        return context.getResources().get(parentResourceId, pathPart);
     }
 
-    private Optional<Resource> getResource(RestApi api, String fullPath) {
-        for (Resource r : api.getResources().getItem()) {
-            if (r.getPath().equals(fullPath)) {
-                return Optional.of(r);
-            }
-        }
-
-        return Optional.empty();
+    private Optional<Resource> getResource(ImportContext context, String fullPath) {
+        return context.getResources().get(fullPath);
     }
 
-    private Optional<Resource> getRootResource(RestApi api) {
-        for (Resource r : api.getResources().getItem()) {
-            if ("/".equals(r.getPath())) {
-                return Optional.of(r);
-            }
-        }
-        return Optional.empty();
+    private Optional<Resource> getRootResource(ImportContext context) {
+        return context.getResources().getRoot();
     }
 
-    private Optional<Model> getModel(RestApi api, String modelName) {
-        try {
-            return Optional.of(api.getModelByName(modelName));
-        } catch (Exception ignored) {
-            return Optional.empty();
-        }
+    private Optional<Model> getModel(ImportContext context, String modelName) {
+        return context.getModels().get(modelName);
     }
 
-    private void updateModel(RestApi api, String modelName, String schema) {
-        api.getModelByName(modelName).updateModel(createPatchDocument(createReplaceOperation("/schema", schema)));
+    private void updateModel(ImportContext context, Model model, String schema) {
+        context.getModels().add(model.updateModel(createPatchDocument(createReplaceOperation("/schema", schema))));
     }
 
-    private boolean methodExists(Resource resource, String httpMethod) {
-        return resource.getResourceMethods().get(httpMethod.toUpperCase()) != null;
+    private boolean methodExists(ImportContext context, Resource resource, String httpMethod) {
+        return context.getSnapshot().getMethod(resource.getId(), httpMethod).isPresent();
     }
 
     private void deleteResource(Resource resource) {
@@ -237,81 +286,93 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
         return StringUtils.isNotBlank(title) ? title : fileName;
     }
 
-    private void createResources(RestApi api, Resource rootResource, String basePath, List<String> apiProduces, Map<String, Path> paths, boolean createMethods) {
-        //build path tree
-
-        for (Map.Entry<String, Path> entry : paths.entrySet()) {
+    /*
+     * Schedule creation of the resource tree, each resource is created once its parent exists
+     * Returns the scheduled resource for every resource path in the tree
+     */
+    private Map<String, CompletableFuture<Resource>> createResources(ImportContext context, OperationScheduler scheduler,
+                                                                     RestApi api, Resource rootResource) {
+        final Map<String, CompletableFuture<Resource>> resourceTree = new LinkedHashMap<>();
+        resourceTree.put("/", CompletableFuture.completedFuture(rootResource));
 
-            // create the resource tree
-            Resource parentResource = rootResource;
+        for (String fullPath : context.getOperations().keySet()) {
+            String parentPath = "/";
             String parentPart = null;
 
-            final String fullPath = buildResourcePath(basePath, entry.getKey());    // prepend the base path to all paths
             final String[] parts = fullPath.split("/");
 
             for (int i = 1; i < parts.length; i++) { // exclude root resource as this will be created when the api is created
-                parentResource = createResource(api, parentResource.getId(), parentPart, parts[i]);
-                parentPart = parts[i];
-            }
-
-            if (createMethods) {
-                // create methods on the leaf resource for each path
-                createMethods(api, parentResource, entry.getValue(), apiProduces);
+                final String part = parts[i];
+                final String resourcePath = buildResourcePath(parentPath, part);
+                final String parentPartName = parentPart;
+                final CompletableFuture<Resource> parent = resourceTree.get(parentPath);
+
+                resourceTree.computeIfAbsent(resourcePath, p -> scheduler.submit(
+                        () -> trace.call("resources", "resource " + resourcePath,
+                                         () -> createResource(context, api, parent.join().getId(), parentPartName, part)),
+                        parent));
+
+                parentPath = resourcePath;
+                parentPart = part;
             }
         }
+
+        return resourceTree;
     }
 
-    private void createModels(RestApi api, Map<String, com.wordnik.swagger.models.Model> definitions, List<String> produces) {
+    private CompletableFuture<Void> createModels(ImportContext context, OperationScheduler scheduler, RestApi api, Map<String, com.wordnik.swagger.models.Model> definitions, List<String> produces) {
         if (definitions == null) {
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
+        final List<CompletableFuture<Void>> created = new ArrayList<>();
+
         for (Map.Entry<String, com.wordnik.swagger.models.Model> entry : definitions.entrySet()) {
             final String modelName = entry.getKey();
             final com.wordnik.swagger.models.Model model = entry.getValue();
 
-            createModel(api, modelName, model, definitions, getProducesContentType(produces, emptyList()));
+            created.add(scheduler.run(() -> trace.run("models", "model " + modelName,
+                    () -> createModel(context, api, modelName, model, getProducesContentType(produces, emptyList())))));
         }
+
+        return CompletableFuture.allOf(created.toArray(new CompletableFuture<?>[created.size()]));
     }
 
-    private void createModel(RestApi api, String modelName, com.wordnik.swagger.models.Model model, Map<String, com.wordnik.swagger.models.Model> definitions, String modelContentType) {
+    private void createModel(ImportContext context, RestApi api, String modelName, com.wordnik.swagger.models.Model model,
+                             String modelContentType) {
         LOG.info(format("Creating model for api id %s with name %s", api.getId(), modelName));
 
-        createModel(api, modelName, model.getDescription(), generateSchema(model, modelName, definitions), modelContentType);
+        createModel(context, api, modelName, model.getDescription(), generateSchema(context, model, modelName), modelContentType);
     }
 
-    private void createModel(RestApi api, String modelName, Property model, String modelContentType) {
+    private void createModel(ImportContext context, RestApi api, String modelName, Property model, String modelContentType) {
         LOG.info(format("Creating model for api id %s with name %s", api.getId(), modelName));
 
-        createModel(api, modelName, model.getDescription(), generateSchema(model, modelName, swagger.getDefinitions()), modelContentType);
+        createModel(context, api, modelName, model.getDescription(), generateSchema(context, model, modelName), modelContentType);
     }
 
-    private void createMethods(final RestApi api, final Resource resource, Path path, List<String> apiProduces) {
-        final Map<String, Operation> ops = getOperations(path);
-
-        ops.entrySet().forEach(x -> {
-            createMethod(api, resource, x.getKey(), x.getValue(),
-                         getProducesContentType(apiProduces, x.getValue().getProduces()));
-            LOG.info(format("Creating method for api id %s and resource id %s with method %s", api.getId(), resource.getId(), x.getKey()));
+    private void createMethods(ImportContext context, OperationScheduler scheduler, RestApi api,
+                               Map<String, CompletableFuture<Resource>> resourceTree,
+                               CompletableFuture<Void> models, List<String> apiProduces) {
+        for (Map.Entry<String, Map<String, Operation>> entry : context.getOperations().entrySet()) {
+            // create methods on the leaf resource for each path
+            final CompletableFuture<Resource> resource = resourceTree.get(entry.getKey());
 
-            sleep();
-        });
-    }
-
-    private void sleep() {
-        try {
-            Thread.sleep(500);  // todo: temporary hack to get around throttling limits - sdk should backoff and retry when throttled
-        } catch (InterruptedException ignored) {}
+            entry.getValue().entrySet().forEach(x -> scheduler.run(() -> trace.run("methods", getMethodSpanName(entry.getKey(), x.getKey()), () -> {
+                LOG.info(format("Creating method for api id %s and resource id %s with method %s", api.getId(), resource.join().getId(), x.getKey()));
+                createMethod(context, api, resource.join(), x.getKey(), x.getValue(),
+                             getProducesContentType(apiProduces, x.getValue().getProduces()));
+            }), resource, models));
+        }
     }
 
-    private Resource createResource(RestApi api, String parentResourceId, String parentPart, String part) {
-        final Optional<Resource> existingResource = getResource(api, parentResourceId, part);
+    private Resource createResource(ImportContext context, RestApi api, String parentResourceId, String parentPart, String part) {
+        final Optional<Resource> existingResource = getResource(context, parentResourceId, part);
 
         // create resource if doesn't exist
         if (!existingResource.isPresent()) {
             LOG.info("Creating resource '" + part + "' with parent '" + parentPart + "'");
-            sleep();
-            return createResource(api, parentResourceId, part);
+            return createResource(context, api, parentResourceId, part);
         } else {
             return existingResource.get();
         }
@@ -323,40 +384,46 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
         }
     }
 
-    private void updateMethods(RestApi api, String basePath, Map<String, Path> paths, List<String> apiProduces) {
-        for (Map.Entry<String, Path> entry : paths.entrySet()) {
-            final String fullPath = buildResourcePath(basePath, entry.getKey());
-
-            final Path path = entry.getValue();
-
-            final Map<String, Operation> ops = getOperations(path);
+    private void updateMethods(ImportContext context, OperationScheduler scheduler, RestApi api, List<String> apiProduces) {
+        try (TraceRecorder.Span ignored = trace.span("methods", "method sync")) {
+            for (Map.Entry<String, Map<String, Operation>> entry : context.getOperations().entrySet()) {
+                final String fullPath = entry.getKey();
 
-            for (Map.Entry<String, Operation> opEntry : ops.entrySet()) {
-                final String httpMethod = opEntry.getKey();
-                final Operation op = opEntry.getValue();
+                for (Map.Entry<String, Operation> opEntry : entry.getValue().entrySet()) {
+                    final String httpMethod = opEntry.getKey();
+                    final Operation op = opEntry.getValue();
 
-                // resolve the resource based on path - the resource is guaranteed to exist by this point
-                final Resource resource = getResource(api, fullPath).get();
+                    scheduler.run(() -> trace.run("methods", getMethodSpanName(fullPath, httpMethod), () -> {
+                        // resolve the resource based on path - the resource is guaranteed to exist by this point
+                        final Resource resource = getResource(context, fullPath).get();
 
-                String modelContentType = getProducesContentType(apiProduces, op.getProduces());
+                        String modelContentType = getProducesContentType(apiProduces, op.getProduces());
 
-                if (methodExists(resource, httpMethod)) {
-                    updateMethod(api, resource, httpMethod, op, modelContentType);
-                } else {
-                    createMethod(api, resource, httpMethod, op, modelContentType);
+                        if (methodExists(context, resource, httpMethod)) {
+                            updateMethod(context, api, resource, httpMethod, op, modelContentType);
+                        } else {
+                            createMethod(context, api, resource, httpMethod, op, modelContentType);
+                        }
+                    }));
                 }
             }
+
+            scheduler.awaitAll();
         }
 
-        cleanupMethods(api, basePath, paths);
+        trace.run("cleanup", "cleanup methods", () -> cleanupMethods(context));
+    }
+
+    private String getMethodSpanName(String fullPath, String httpMethod) {
+        return httpMethod.toUpperCase() + " " + fullPath;
     }
 
-    public void createMethod(RestApi api, Resource resource, String httpMethod,
-                             Operation op, String modelContentType) {
+    private void createMethod(ImportContext context, RestApi api, Resource resource, String httpMethod,
+                              Operation op, String modelContentType) {
         PutMethodInput input = new PutMethodInput();
 
         input.setAuthorizationType(getAuthorizationType(op));
-        input.setApiKeyRequired(isApiKeyRequired(op));
+        input.setApiKeyRequired(isApiKeyRequired(context.getSwagger(), op));
 
         // set input model if present in body
         op.getParameters().stream().filter(p -> p.getIn().equals("body")).forEach(p -> {
@@ -371,24 +438,41 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
             } else {
                 // create new model from nested schema
                 String modelName = generateModelName(bodyParam);
-                LOG.info("Creating new model referenced from parameter: " + modelName);
-                createModel(api, modelName, bodyParam.getSchema(), swagger.getDefinitions(), modelContentType);
+                createGeneratedModel(context, modelName, () -> {
+                    LOG.info("Creating new model referenced from parameter: " + modelName);
+                    createModel(context, api, modelName, bodyParam.getSchema(), modelContentType);
+                });
             }
         });
 
         // create method
         Method method = resource.putMethod(input, httpMethod.toUpperCase());
 
-        createMethodResponses(api, method, modelContentType, op.getResponses());
+        createMethodResponses(context, api, method, modelContentType, op.getResponses());
         createMethodParameters(api, method, op.getParameters());
         createIntegration(method, op.getVendorExtensions());
+
+        context.getFingerprints().record(getMethodKey(resource, httpMethod), getMethodFingerprint(context, op, modelContentType));
+        context.getFingerprints().record(getIntegrationKey(resource, httpMethod), getIntegrationFingerprint(op));
     }
 
     private void createIntegrationResponses(Integration integration, HashMap<String, HashMap> integ) {
+        getIntegrationResponseInputs(integ).forEach((status, input) -> integration.putIntegrationResponse(input, status));
+    }
+
+    /*
+     * Get the integration responses defined in the integration extension, keyed by status code
+     */
+    private Map<String, PutIntegrationResponseInput> getIntegrationResponseInputs(HashMap<String, HashMap> integ) {
+        final Map<String, PutIntegrationResponseInput> inputs = new LinkedHashMap<>();
 
         // todo: avoid unchecked casts
         HashMap<String, HashMap> responses = (HashMap<String, HashMap>) integ.get("responses");
 
+        if (responses == null) {
+            return inputs;
+        }
+
         responses.entrySet().forEach(e -> {
             String pattern = e.getKey().equals("default") ? null : e.getKey();
             HashMap response = e.getValue();
@@ -400,8 +484,10 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
                     .withResponseTemplates((Map<String, String>) response.get("responseTemplates"))
                     .withSelectionPattern(pattern);
 
-            integration.putIntegrationResponse(input, status);
+            inputs.put(status, input);
         });
+
+        return inputs;
     }
 
     private void createIntegration(Method method, Map<String, Object> vendorExtensions) {
@@ -412,11 +498,19 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
         HashMap<String, HashMap> integ =
                 (HashMap<String, HashMap>) vendorExtensions.get(EXTENSION_INTEGRATION);
 
-        IntegrationType type = IntegrationType.valueOf(getStringValue(integ.get("type")).toUpperCase());
+        PutIntegrationInput input = getIntegrationInput(integ);
 
-        LOG.info("Creating integration with type " + type);
+        LOG.info("Creating integration with type " + input.getType());
+
+        Integration integration = method.putIntegration(input);
+
+        createIntegrationResponses(integration, integ);
+    }
+
+    private PutIntegrationInput getIntegrationInput(HashMap<String, HashMap> integ) {
+        IntegrationType type = IntegrationType.valueOf(getStringValue(integ.get("type")).toUpperCase());
 
-        PutIntegrationInput input = new PutIntegrationInput()
+        return new PutIntegrationInput()
                 .withType(type)
                 .withUri(getStringValue(integ.get("uri")))
                 .withCredentials(getStringValue(integ.get("credentials")))
@@ -425,10 +519,44 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
                 .withRequestTemplates(integ.get("requestTemplates"))
                 .withCacheNamespace(getStringValue(integ.get("cacheNamespace")))
                 .withCacheKeyParameters((List<String>) integ.get("cacheKeyParameters"));
+    }
 
-        Integration integration = method.putIntegration(input);
+    /*
+     * Re-put the integration only if it changed, which also replaces its integration responses.
+     * Otherwise update only the integration responses that changed
+     */
+    private void updateIntegration(Method method, ApiSnapshot.MethodSnapshot existingState, Map<String, Object> vendorExtensions) {
+        if (!vendorExtensions.containsKey(EXTENSION_INTEGRATION)) {
+            return;
+        }
 
-        createIntegrationResponses(integration, integ);
+        HashMap<String, HashMap> integ =
+                (HashMap<String, HashMap>) vendorExtensions.get(EXTENSION_INTEGRATION);
+
+        Optional<Integration> existing = existingState.getIntegration();
+
+        if (!existing.isPresent() || UpdatePlanner.isIntegrationChanged(existing.get(), getIntegrationInput(integ))) {
+            createIntegration(method, vendorExtensions);
+            return;
+        }
+
+        final Integration integration = existing.get();
+        final Map<String, PutIntegrationResponseInput> inputs = getIntegrationResponseInputs(integ);
+        final Map<String, IntegrationResponse> current = existingState.getIntegrationResponses();
+
+        current.entrySet().stream().filter(e -> !inputs.containsKey(e.getKey())).forEach(e -> {
+            LOG.info(format("Removing deleted integration response for method %s and status %s", method.getHttpMethod(), e.getKey()));
+            e.getValue().deleteIntegrationResponse();
+        });
+
+        inputs.forEach((status, input) -> {
+            IntegrationResponse response = current.get(status);
+
+            if (response == null || UpdatePlanner.isIntegrationResponseChanged(response, input)) {
+                LOG.info(format("Updating integration response for method %s and status %s", method.getHttpMethod(), status));
+                integration.putIntegrationResponse(input, status);
+            }
+        });
     }
 
     private String getStringValue(Object in) {
@@ -447,7 +575,7 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
         return authType;
     }
 
-    private Boolean isApiKeyRequired(Operation op) {
+    private Boolean isApiKeyRequired(Swagger swagger, Operation op) {
         Optional<Map.Entry<String, SecuritySchemeDefinition>> apiKeySecurityDefinition = Optional.empty();
 
         if (swagger.getSecurityDefinitions() != null) {
@@ -470,28 +598,81 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
         return false;
     }
 
-    private String generateSchema(Property model, String modelName, Map<String, com.wordnik.swagger.models.Model> definitions) {
-        return generateSchemaString(model, modelName, definitions);
+    private JsonNode generateSchema(ImportContext context, Property model, String modelName) {
+        return generateSchemaTree(context, model, modelName);
     }
 
-    private String generateSchemaString(Object model, String modelName, Map<String, com.wordnik.swagger.models.Model> definitions) {
-        try {
-            String modelSchema = Json.mapper().writeValueAsString(model);
-            String models = Json.mapper().writeValueAsString(definitions);
+    /*
+     * Create the schema transformer for the definitions of the swagger being imported
+     */
+    private SchemaTransformer createSchemaTransformer(Map<String, com.wordnik.swagger.models.Model> definitions) {
+        return new SchemaTransformer(Json.mapper().valueToTree(definitions != null ? definitions : emptyMap()));
+    }
+
+    /*
+     * Generate and validate the schemas of all models up front, in parallel. The generated schemas are kept in the
+     * context for use by the import
+     */
+    private void generateSchemas(ImportContext context) {
+        final Swagger swagger = context.getSwagger();
+        final Map<Object, String> sources = new IdentityHashMap<>();
 
-            // inline all references
-            String schema = new SchemaTransformer().flatten(modelSchema, models);
+        if (swagger.getDefinitions() != null) {
+            swagger.getDefinitions().forEach((name, model) -> sources.put(model, name));
+        }
+
+        context.getOperations().values().stream()
+                .flatMap(ops -> ops.values().stream())
+                .forEach(op -> {
+                    if (op.getParameters() != null) {
+                        op.getParameters().stream()
+                                .filter(p -> p.getIn().equals("body"))
+                                .map(p -> (BodyParameter) p)
+                                .filter(p -> p.getSchema() != null && !getInputModel(p).isPresent())
+                                .forEach(p -> sources.put(p.getSchema(), generateModelName(p)));
+                    }
+                    if (op.getResponses() != null) {
+                        op.getResponses().values().stream()
+                                .filter(response -> response.getSchema() != null && !response.getSchema().getType().equals("ref"))
+                                .forEach(response -> sources.put(response.getSchema(), generateModelName(response)));
+                    }
+                });
+
+        sources.entrySet().parallelStream().forEach(e -> generateSchemaTree(context, e.getKey(), e.getValue()));
+    }
+
+    private JsonNode generateSchemaTree(ImportContext context, Object model, String modelName) {
+        final JsonNode existing = context.getSchemas().get(model);
+
+        if (existing != null) {
+            return existing;
+        }
 
-            LOG.info("Generated json-schema for model " + modelName + ": " + schema);
+        // inline all references
+        JsonNode schema = context.getSchemaTransformer().flatten(Json.mapper().<JsonNode>valueToTree(model));
 
-            return schema;
-        } catch (IOException e) {
-            throw new IllegalArgumentException("Could not process model", e);
+        LOG.info("Generated json-schema for model " + modelName);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Generated json-schema for model " + modelName + ": " + schema);
         }
+
+        context.getSchemas().put(model, schema);
+        return schema;
     }
 
-    private String generateSchema(com.wordnik.swagger.models.Model model, String modelName, Map<String, com.wordnik.swagger.models.Model> definitions) {
-        return generateSchemaString(model, modelName, definitions);
+    /*
+     * Serialize a generated schema, this is done only once per model when the schema is sent to the control plane
+     */
+    private String serializeSchema(JsonNode schema) {
+        try {
+            return Json.mapper().writeValueAsString(schema);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize generated schema json", e);
+        }
+    }
+
+    private JsonNode generateSchema(ImportContext context, com.wordnik.swagger.models.Model model, String modelName) {
+        return generateSchemaTree(context, model, modelName);
     }
 
     private Optional<String> getInputModel(BodyParameter p) {
@@ -527,6 +708,21 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
         return "[^A-Za-z0-9]";
     }
 
+    /*
+     * Index the operations of the swagger by full resource path, normalizing each path once. Paths without
+     * operations are included so that their resources are created
+     */
+    Map<String, Map<String, Operation>> buildOperations(String basePath, Map<String, Path> paths) {
+        final Map<String, Map<String, Operation>> ops = new LinkedHashMap<>();
+
+        if (paths != null) {
+            paths.forEach((path, pathItem) -> ops.computeIfAbsent(buildResourcePath(basePath, path), p -> new HashMap<>())
+                    .putAll(getOperations(pathItem)));
+        }
+
+        return ops;
+    }
+
     private Map<String, Operation> getOperations(Path path) {
         final Map<String, Operation> ops = new HashMap<>();
 
@@ -540,67 +736,170 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
         return ops;
     }
 
-    private void updateResources(RestApi api, Resource rootResourceId, String basePath, Map<String, Path> paths, List<String> apiProduces) {
-        createResources(api, rootResourceId, basePath, apiProduces, paths, false);
-        cleanupResources(api, basePath, paths);
+    private void updateResources(ImportContext context, OperationScheduler scheduler, RestApi api, Resource rootResource) {
+        try (TraceRecorder.Span ignored = trace.span("resources", "resource tree sync")) {
+            createResources(context, scheduler, api, rootResource);
+            scheduler.awaitAll();
+        }
+
+        trace.run("cleanup", "cleanup resources", () -> cleanupResources(context));
     }
 
-    private void updateModels(RestApi api, Map<String, com.wordnik.swagger.models.Model> definitions, List<String> apiProduces) {
+    private void updateModels(ImportContext context, OperationScheduler scheduler, RestApi api, Map<String, com.wordnik.swagger.models.Model> definitions, List<String> apiProduces) {
         if (definitions == null) {
             return;
         }
 
-        for (Map.Entry<String, com.wordnik.swagger.models.Model> entry : definitions.entrySet()) {
-            final String modelName = entry.getKey();
-            final com.wordnik.swagger.models.Model model = entry.getValue();
+        try (TraceRecorder.Span ignored = trace.span("models", "model sync")) {
+            for (Map.Entry<String, com.wordnik.swagger.models.Model> entry : definitions.entrySet()) {
+                final String modelName = entry.getKey();
+                final com.wordnik.swagger.models.Model model = entry.getValue();
 
-            if (getModel(api, modelName).isPresent()) {
-                updateModel(api, modelName, model);
-            } else {
-                createModel(api, modelName, model, definitions, getProducesContentType(apiProduces, emptyList()));
+                scheduler.run(() -> trace.run("models", "model " + modelName, () -> {
+                    Optional<Model> existing = getModel(context, modelName);
+
+                    if (existing.isPresent()) {
+                        updateModel(context, api, existing.get(), model);
+                    } else {
+                        createModel(context, api, modelName, model, getProducesContentType(apiProduces, emptyList()));
+                    }
+                }));
             }
+
+            scheduler.awaitAll();
         }
 
-        cleanupModels(api, definitions);
+        trace.run("cleanup", "cleanup models", () -> cleanupModels(context, definitions));
     }
 
-    private void updateModel(RestApi api, String modelName, com.wordnik.swagger.models.Model model) {
-        LOG.info(format("Updating model for api id %s and model name %s", api.getId(), modelName));
-        updateModel(api, modelName, generateSchema(model, modelName, swagger.getDefinitions()));
+    private void updateModel(ImportContext context, RestApi api, Model existing, com.wordnik.swagger.models.Model model) {
+        final String modelName = existing.getName();
+        final JsonNode schema = generateSchema(context, model, modelName);
+        final String schemaText = serializeSchema(schema);
+        final String fingerprint = FingerprintStore.hash(schemaText);
+
+        if (context.getFingerprints().isUnchanged(getModelKey(modelName), fingerprint)
+                || !UpdatePlanner.isSchemaChanged(existing.getSchema(), schema)) {
+            LOG.info(format("Model %s is unchanged", modelName));
+        } else {
+            LOG.info(format("Updating model for api id %s and model name %s", api.getId(), modelName));
+            updateModel(context, existing, schemaText);
+        }
+
+        context.getFingerprints().record(getModelKey(modelName), fingerprint);
     }
 
-    private void updateMethod(RestApi api, Resource resource, String httpMethod, Operation op, String modelContentType) {
-        LOG.info(format("Updating method for api id %s and resource %s and method %s", api.getId(), resource.getId(), httpMethod));
+    private void updateMethod(ImportContext context, RestApi api, Resource resource, String httpMethod, Operation op,
+                              String modelContentType) {
+        final FingerprintStore.Fingerprints fingerprints = context.getFingerprints();
+        final String methodKey = getMethodKey(resource, httpMethod);
+        final String methodFingerprint = getMethodFingerprint(context, op, modelContentType);
+        final String integrationKey = getIntegrationKey(resource, httpMethod);
+        final String integrationFingerprint = getIntegrationFingerprint(op);
 
-        PatchDocument pd = createPatchDocument(
-                createReplaceOperation("/authorizationType", getAuthorizationType(op)),
-                createReplaceOperation("/apiKeyRequired", getStringValue(isApiKeyRequired(op))));
-        Method method = resource.getMethodByHttpMethod(httpMethod.toUpperCase()).updateMethod(pd);
+        final boolean methodChanged = !fingerprints.isUnchanged(methodKey, methodFingerprint);
+        final boolean integrationChanged = !fingerprints.isUnchanged(integrationKey, integrationFingerprint);
 
-        updateMethodResponses(api, method, modelContentType, op.getResponses());
-        updateMethodParameters(api, method, op.getParameters());
-        createIntegration(method, op.getVendorExtensions());
+        if (!methodChanged && !integrationChanged) {
+            LOG.info(format("Method %s for resource %s is unchanged since the last import", httpMethod, resource.getPath()));
+        } else {
+            LOG.info(format("Updating method for api id %s and resource %s and method %s", api.getId(), resource.getId(), httpMethod));
+
+            final ApiSnapshot.MethodSnapshot existingState = context.getSnapshot().getMethod(resource.getId(), httpMethod).get();
+            Method method = existingState.getMethod();
+
+            if (methodChanged) {
+                final Method existing = method;
+
+                // method settings and request parameters are sent in a single patch
+                method = createPatchAccumulator(existing::updateMethod)
+                        .addAll(UpdatePlanner.planMethodSettings(existing, getAuthorizationType(op), isApiKeyRequired(context.getSwagger(), op)))
+                        .addAll(planMethodParameters(api, existing, op.getParameters()))
+                        .flush()
+                        .orElse(existing);
+
+                updateMethodResponses(context, api, method, existingState.getResponses(), modelContentType, op.getResponses());
+            }
 
-        sleep();
+            if (integrationChanged) {
+                updateIntegration(method, existingState, op.getVendorExtensions());
+            }
+        }
+
+        fingerprints.record(methodKey, methodFingerprint);
+        fingerprints.record(integrationKey, integrationFingerprint);
+    }
+
+    private void saveFingerprints(String apiId, FingerprintStore.Fingerprints fingerprints) {
+        if (fingerprintStore != null) {
+            fingerprintStore.save(apiId, fingerprints);
+        }
+    }
+
+    private String getModelKey(String modelName) {
+        return "model " + modelName;
+    }
+
+    private String getMethodKey(Resource resource, String httpMethod) {
+        return "method " + resource.getPath() + " " + httpMethod.toUpperCase();
+    }
+
+    private String getIntegrationKey(Resource resource, String httpMethod) {
+        return "integration " + resource.getPath() + " " + httpMethod.toUpperCase();
+    }
+
+    /*
+     * Fingerprint of everything sent for a method: its settings, request parameters and responses
+     */
+    private String getMethodFingerprint(ImportContext context, Operation op, String modelContentType) {
+        final Map<String, Object> method = new LinkedHashMap<>();
+        method.put("authorizationType", getAuthorizationType(op));
+        method.put("apiKeyRequired", isApiKeyRequired(context.getSwagger(), op));
+        method.put("contentType", modelContentType);
+        method.put("parameters", op.getParameters());
+        method.put("responses", op.getResponses());
+
+        return getFingerprint(method);
+    }
+
+    private String getIntegrationFingerprint(Operation op) {
+        return getFingerprint(op.getVendorExtensions().get(EXTENSION_INTEGRATION));
+    }
+
+    private String getFingerprint(Object value) {
+        try {
+            return FingerprintStore.hashJson(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not process swagger definition", e);
+        }
     }
 
-    private void cleanupModels(RestApi api, Map<String, com.wordnik.swagger.models.Model> definitions) {
-        api.getModels().getItem().stream().filter(model -> !definitions.containsKey(model.getName())).forEach(model -> {
+    private void cleanupModels(ImportContext context, Map<String, com.wordnik.swagger.models.Model> definitions) {
+        context.getModels().getAll().stream().filter(model -> !definitions.containsKey(model.getName())).forEach(model -> {
             LOG.info("Removing deleted model " + model.getName());
             try {
                 model.deleteModel();
+                context.getModels().remove(model);
             }  catch (Throwable ignored) {} // todo: temporary catch until API fix
         });
     }
 
-    private void cleanupMethods(RestApi api, String basePath, Map<String, Path> paths) {
+    private void cleanupMethods(ImportContext context) {
         LOG.info("Cleaning up removed methods");
 
-        for (Resource r : api.getResources().getItem()) {
-            for (Method m : r.getResourceMethods().values()) {
+        final ApiSnapshot snapshot = context.getSnapshot();
+        final Set<String> resourcePaths = getResourcePaths(context);
+
+        for (Resource r : snapshot.getResources()) {
+            if (!resourcePaths.contains(r.getPath())) {
+                continue;   // the methods were deleted with the resource
+            }
+
+            for (ApiSnapshot.MethodSnapshot state : snapshot.getMethods(r.getId()).values()) {
+                Method m = state.getMethod();
                 String httpMethod = m.getHttpMethod().toLowerCase();
 
-                if (!isMethodInSwagger(r.getPath(), httpMethod, basePath, paths)) {
+                if (!context.getOperations().getOrDefault(r.getPath(), emptyMap()).containsKey(httpMethod)) {
                     LOG.info(format("Removing deleted method %s for resource %s", httpMethod, r.getId()));
 
                     m.deleteMethod();
@@ -609,44 +908,49 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
         }
     }
 
-    private boolean isMethodInSwagger(String path, String httpMethod, String basePath, Map<String, Path> paths) {
-        for (Map.Entry<String, Path> entry : paths.entrySet()) {
-
-            Map<String, Operation> ops = getOperations(entry.getValue());
-
-            String fullPath = buildResourcePath(basePath, entry.getKey());
-
-            if (fullPath.equals(path) && ops.containsKey(httpMethod)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private void cleanupResources(RestApi api, String basePath, Map<String, Path> paths) {
+    private void cleanupResources(ImportContext context) {
         LOG.info("Cleaning up removed resources");
 
-        Set<String> resourceSet = buildResourceSet(paths, basePath);
+        final Set<String> resourcePaths = getResourcePaths(context);
 
-        // don't remove the resource if it's path part exists in any of the swagger paths
-        // this prevents intermediate resources from being deleted, but may also prevent deletion when resources are "moved"
-        api.getResources().getItem().stream().filter(resource -> !resourceSet.contains(resource.getPathPart()))
+        // deleting a resource also deletes its descendants, so only the topmost removed resource of each branch
+        // is deleted. The swagger resource paths include all ancestors, so a removed resource whose parent is
+        // kept is the root of a removed branch
+        context.getResources().getAll().stream()
+                .filter(resource -> !resourcePaths.contains(resource.getPath()))
+                .filter(resource -> resourcePaths.contains(getParentPath(resource.getPath())))
                 .forEach(resource -> {
                     LOG.info("Removing deleted resource " + resource.getPath());
                     deleteResource(resource);
+                    context.getResources().remove(resource);
                 });
     }
 
-    private Set<String> buildResourceSet(Map<String, Path> paths, String basePath) {
-        Set<String> resourceSet = new HashSet<>();
-        for (String path : paths.keySet()) {
-            resourceSet.addAll(Arrays.asList(path.split("/")));
+    /*
+     * Get the full paths of all resources of the swagger, including intermediate resources and the root resource
+     */
+    private Set<String> getResourcePaths(ImportContext context) {
+        final Set<String> resourcePaths = new HashSet<>();
+        resourcePaths.add("/");
+
+        for (String fullPath : context.getOperations().keySet()) {
+            for (String path = fullPath; !path.equals("/"); path = getParentPath(path)) {
+                if (!resourcePaths.add(path)) {
+                    break;  // the ancestors of this path have already been added
+                }
+            }
         }
-        resourceSet.add(StringUtils.removeStart(basePath, "/"));
-        return resourceSet;
+
+        return resourcePaths;
     }
 
-    private PutMethodResponseInput getCreateResponseInput(RestApi api, String modelContentType, Response response) {
+    String getParentPath(String path) {
+        final int index = path.lastIndexOf('/');
+        return index <= 0 ? "/" : path.substring(0, index);
+    }
+
+    private PutMethodResponseInput getCreateResponseInput(ImportContext context, RestApi api, String modelContentType,
+                                                          Response response) {
 
         final PutMethodResponseInput input = new PutMethodResponseInput();
 
@@ -658,7 +962,7 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
         }
 
         // if the schema references an existing model, use that model for the response
-        Optional<com.amazonaws.services.apigateway.model.Model> modelOpt = getModel(api, response);
+        Optional<com.amazonaws.services.apigateway.model.Model> modelOpt = getModel(context, response);
         if (modelOpt.isPresent()) {
             input.setResponseModels(new HashMap<>());
             input.getResponseModels().put(modelContentType, modelOpt.get().getName());
@@ -668,9 +972,10 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
             if (response.getSchema() != null) {
                 String modelName = generateModelName(response);
 
-                LOG.info("Creating new model referenced from response: " + modelName);
-
-                createModel(api, modelName, response.getSchema(), modelContentType);
+                createGeneratedModel(context, modelName, () -> {
+                    LOG.info("Creating new model referenced from response: " + modelName);
+                    createModel(context, api, modelName, response.getSchema(), modelContentType);
+                });
 
                 input.setResponseModels(new HashMap<>());
                 input.getResponseModels().put(modelContentType, modelName);
@@ -680,7 +985,32 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
         return input;
     }
 
-    private void createMethodResponses(RestApi api, Method method, String modelContentType, Map<String, Response> responses) {
+    /*
+     * Create a model generated from an inline schema unless it already exists. Methods are created concurrently, the
+     * first method to need the model creates it and the others sharing it wait for that creation. Methods needing
+     * other models are not blocked
+     */
+    private void createGeneratedModel(ImportContext context, String modelName, Runnable create) {
+        final CompletableFuture<Void> creation = new CompletableFuture<>();
+        final CompletableFuture<Void> existing = context.getGeneratedModels().computeIfAbsent(modelName, name -> creation);
+
+        if (existing == creation) {
+            try {
+                if (!getModel(context, modelName).isPresent()) {
+                    create.run();
+                }
+                creation.complete(null);
+            } catch (Throwable t) {
+                creation.completeExceptionally(t);
+                throw t;
+            }
+        }
+
+        existing.join();
+    }
+
+    private void createMethodResponses(ImportContext context, RestApi api, Method method, String modelContentType,
+                                       Map<String, Response> responses) {
         if (responses == null) {
             return;
         }
@@ -690,18 +1020,22 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
             if (e.getKey().equals("default")) {
                 LOG.warn("Default response not supported, skipping");
             } else {
-                LOG.info(format("Creating method response for api %s and method %s and status %s",
-                                api.getId(), method.getHttpMethod(), e.getKey()));
-
-                method.putMethodResponse(getCreateResponseInput(api, modelContentType, e.getValue()), e.getKey());
+                createMethodResponse(api, method, e.getKey(), getCreateResponseInput(context, api, modelContentType, e.getValue()));
             }
         });
     }
 
+    private void createMethodResponse(RestApi api, Method method, String status, PutMethodResponseInput input) {
+        LOG.info(format("Creating method response for api %s and method %s and status %s",
+                        api.getId(), method.getHttpMethod(), status));
+
+        method.putMethodResponse(input, status);
+    }
+
     /*
      * Get the model referenced by given schema if it exists
      */
-    private Optional<com.amazonaws.services.apigateway.model.Model> getModel(RestApi api, Response response) {
+    private Optional<com.amazonaws.services.apigateway.model.Model> getModel(ImportContext context, Response response) {
 
         String modelName;
 
@@ -713,14 +1047,12 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
             modelName = generateModelName(response);
         }
 
-        try {
-            return Optional.of(api.getModelByName(modelName));
-        } catch (Exception ignored) {}
-
-        return Optional.empty();
+        return context.getModels().get(modelName);
     }
 
     private void createMethodParameters(RestApi api, Method method, List<Parameter> parameters) {
+        final PatchAccumulator<Method> patch = createPatchAccumulator(method::updateMethod);
+
         parameters.forEach(p -> {
             if (!p.getIn().equals("body")) {
                 if (getParameterLocation(p).isPresent()) {
@@ -729,11 +1061,12 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
                     LOG.info(format("Creating method parameter for api %s and method %s with name %s",
                                     api.getId(), method.getHttpMethod(), expression));
 
-                    method.updateMethod(createPatchDocument(createAddOperation("/requestParameters/" + expression,
-                                                                               getStringValue(p.getRequired()))));
+                    patch.add(createAddOperation("/requestParameters/" + expression, getStringValue(p.getRequired())));
                 }
             }
         });
+
+        patch.flush();
     }
 
     private String createRequestParameterExpression(Parameter p) {
@@ -756,24 +1089,59 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
         return Optional.empty();
     }
 
-    private void updateMethodParameters(RestApi api, Method method, List<Parameter> parameters) {
-        // clear existing params
-        if (method.getRequestParameters() != null) {
-            method.getRequestParameters().keySet().forEach(k -> {
-                method.updateMethod(createPatchDocument(createRemoveOperation("/requestParameters/" + k)));
-            });
-        }
+    /*
+     * Get the patch operations that add, change or remove only the params that differ from swagger
+     */
+    private List<PatchOperation> planMethodParameters(RestApi api, Method method, List<Parameter> parameters) {
+        List<PatchOperation> ops = UpdatePlanner.planRequestParameters(method.getRequestParameters(), getRequestParameters(parameters));
 
-        // add all params from swaqgger
-        createMethodParameters(api, method, parameters);
+        ops.forEach(op -> LOG.info(format("Updating method parameter for api %s and method %s: %s %s",
+                                          api.getId(), method.getHttpMethod(), op.getOp(), op.getPath())));
+        return ops;
     }
 
-    private void updateMethodResponses(RestApi api, Method method, String modelContentType, Map<String, Response> responses) {
-        Map<String, MethodResponse> responseMap = method.getMethodResponses();
+    /*
+     * Get the supported request parameters, keyed by parameter expression
+     */
+    private Map<String, Boolean> getRequestParameters(List<Parameter> parameters) {
+        final Map<String, Boolean> requestParameters = new LinkedHashMap<>();
+
+        parameters.stream()
+                .filter(p -> !p.getIn().equals("body") && getParameterLocation(p).isPresent())
+                .forEach(p -> requestParameters.put(createRequestParameterExpression(p), p.getRequired()));
 
-        // delete all existing responses
-        responseMap.values().forEach(MethodResponse::deleteMethodResponse);
-        createMethodResponses(api, method, modelContentType, responses);
+        return requestParameters;
+    }
+
+    private void updateMethodResponses(ImportContext context, RestApi api, Method method, Map<String, MethodResponse> responseMap,
+                                       String modelContentType, Map<String, Response> responses) {
+        final Map<String, Response> swaggerResponses = UpdatePlanner.orEmpty(responses);
+
+        // delete responses removed from swagger
+        responseMap.entrySet().stream().filter(e -> !swaggerResponses.containsKey(e.getKey())).forEach(e -> {
+            LOG.info(format("Removing deleted method response for method %s and status %s", method.getHttpMethod(), e.getKey()));
+            e.getValue().deleteMethodResponse();
+        });
+
+        // replace only the responses that changed
+        swaggerResponses.entrySet().forEach(e -> {
+            if (e.getKey().equals("default")) {
+                LOG.warn("Default response not supported, skipping");
+                return;
+            }
+
+            PutMethodResponseInput input = getCreateResponseInput(context, api, modelContentType, e.getValue());
+            MethodResponse existing = responseMap.get(e.getKey());
+
+            if (existing != null) {
+                if (!UpdatePlanner.isMethodResponseChanged(existing, input)) {
+                    return;
+                }
+                existing.deleteMethodResponse();
+            }
+
+            createMethodResponse(api, method, e.getKey(), input);
+        });
     }
 
     /**
@@ -811,7 +1179,7 @@ public class ApiGatewaySdkSwaggerApiImporter implements SwaggerApiImporter {
      */
     // todo: check this logic for apis/methods producing multiple content-types
     // note: assumption - models in an api will always use one of the api "produces" content types, favoring application/json. models created from operation responses may use the operation "produces" content type
-    private String getProducesContentType(List<String> apiProduces, List<String> methodProduces) {
+    String getProducesContentType(List<String> apiProduces, List<String> methodProduces) {
 
         if (methodProduces != null && !methodProduces.isEmpty()) {
             if (methodProduces.stream().anyMatch(t -> t.equalsIgnoreCase(DEFAULT_PRODUCES_CONTENT_TYPE))) {
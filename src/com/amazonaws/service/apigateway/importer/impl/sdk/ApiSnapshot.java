@@ -0,0 +1,179 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.apigateway.model.Integration;
+import com.amazonaws.services.apigateway.model.IntegrationResponse;
+import com.amazonaws.services.apigateway.model.Method;
+import com.amazonaws.services.apigateway.model.MethodResponse;
+import com.amazonaws.services.apigateway.model.Model;
+import com.amazonaws.services.apigateway.model.Resource;
+import com.amazonaws.services.apigateway.model.RestApi;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static java.lang.String.format;
+
+/**
+ * Immutable snapshot of the remote state of an API: its resources, methods, method responses, integrations,
+ * integration responses and models
+ *
+ * The resources, models and methods of the API are crawled once at the start of an update, following the HAL links of
+ * the API concurrently, so that the update and cleanup logic reads them from memory instead of following links one at
+ * a time. The responses and integration of a method are only read when the method is updated, so methods skipped as
+ * unchanged since the last import cost no reads. The snapshot is not updated by the import, state created or changed
+ * during the import is tracked separately.
+ */
+class ApiSnapshot {
+    private static final Log LOG = LogFactory.getLog(ApiSnapshot.class);
+
+    private final List<Resource> resources;
+    private final List<Model> models;
+
+    // methods keyed by resource id, then by upper case HTTP method
+    private final Map<String, Map<String, MethodSnapshot>> methods;
+
+    private ApiSnapshot(List<Resource> resources, List<Model> models, Map<String, Map<String, MethodSnapshot>> methods) {
+        this.resources = Collections.unmodifiableList(resources);
+        this.models = Collections.unmodifiableList(models);
+        this.methods = Collections.unmodifiableMap(methods);
+    }
+
+    /**
+     * Crawl the state of an API. Resources and models are read first, then the methods of all resources are read
+     * in parallel
+     */
+    static ApiSnapshot crawl(RestApi api, OperationScheduler scheduler) {
+        LOG.info("Reading the current state of API " + api.getId());
+
+        final CompletableFuture<List<Model>> models = scheduler.submit(() -> new ArrayList<>(api.getModels().getItem()));
+        final List<Resource> resources = new ArrayList<>(api.getResources().getItem());
+
+        final Map<String, CompletableFuture<Map<String, Method>>> resourceMethods = new HashMap<>();
+        resources.forEach(r -> resourceMethods.put(r.getId(), scheduler.submit(() -> getResourceMethods(r))));
+        scheduler.awaitAll();
+
+        final Map<String, Map<String, MethodSnapshot>> methods = new HashMap<>();
+        resourceMethods.forEach((resourceId, future) -> {
+            final Map<String, MethodSnapshot> snapshots = new LinkedHashMap<>();
+            future.join().forEach((httpMethod, method) -> snapshots.put(httpMethod.toUpperCase(), new MethodSnapshot(method)));
+            methods.put(resourceId, Collections.unmodifiableMap(snapshots));
+        });
+
+        LOG.info(format("Read %d resources, %d methods and %d models", resources.size(),
+                        methods.values().stream().mapToInt(Map::size).sum(), models.join().size()));
+
+        return new ApiSnapshot(resources, models.join(), methods);
+    }
+
+    List<Resource> getResources() {
+        return resources;
+    }
+
+    List<Model> getModels() {
+        return models;
+    }
+
+    /**
+     * Get the methods of a resource keyed by upper case HTTP method
+     */
+    Map<String, MethodSnapshot> getMethods(String resourceId) {
+        return methods.getOrDefault(resourceId, Collections.emptyMap());
+    }
+
+    Optional<MethodSnapshot> getMethod(String resourceId, String httpMethod) {
+        return Optional.ofNullable(getMethods(resourceId).get(httpMethod.toUpperCase()));
+    }
+
+    private static Map<String, Method> getResourceMethods(Resource resource) {
+        final Map<String, Method> methods = resource.getResourceMethods();
+        return methods == null ? Collections.emptyMap() : new LinkedHashMap<>(methods);
+    }
+
+    /**
+     * The state of a single method. The responses and integration are read on first use
+     */
+    static class MethodSnapshot {
+        private final Method method;
+        private MethodDetails details;
+
+        private MethodSnapshot(Method method) {
+            this.method = method;
+        }
+
+        Method getMethod() {
+            return method;
+        }
+
+        Map<String, MethodResponse> getResponses() {
+            return getDetails().responses;
+        }
+
+        Optional<Integration> getIntegration() {
+            return Optional.ofNullable(getDetails().integration);
+        }
+
+        Map<String, IntegrationResponse> getIntegrationResponses() {
+            return getDetails().integrationResponses;
+        }
+
+        private synchronized MethodDetails getDetails() {
+            if (details == null) {
+                details = new MethodDetails(method);
+            }
+            return details;
+        }
+    }
+
+    private static class MethodDetails {
+        private final Map<String, MethodResponse> responses;
+        private final Integration integration;
+        private final Map<String, IntegrationResponse> integrationResponses;
+
+        MethodDetails(Method method) {
+            responses = Collections.unmodifiableMap(new LinkedHashMap<>(UpdatePlanner.orEmpty(method.getMethodResponses())));
+
+            integration = getIntegration(method);
+
+            integrationResponses = Collections.unmodifiableMap(integration == null
+                    ? Collections.emptyMap() : new LinkedHashMap<>(UpdatePlanner.orEmpty(integration.getIntegrationResponses())));
+        }
+
+        /*
+         * Only a not found error means the method has no integration. Any other failure is rethrown, so that an
+         * integration that couldn't be read is never replaced as if it didn't exist
+         */
+        private static Integration getIntegration(Method method) {
+            try {
+                return method.getMethodIntegration();
+            } catch (AmazonServiceException e) {
+                if (e.getStatusCode() == 404) {
+                    return null;
+                }
+                throw e;
+            }
+        }
+    }
+}
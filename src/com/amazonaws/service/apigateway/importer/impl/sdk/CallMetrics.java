@@ -0,0 +1,237 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.service.apigateway.importer.impl.SchemaTransformer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.amazonaws.service.apigateway.importer.util.FileUtils.writeAtomically;
+import static java.lang.String.format;
+
+/**
+ * Counts, errors, throttling events and latency histograms of the remote calls made to API Gateway, per operation
+ *
+ * Every attempt of a call is recorded, so a call retried after being throttled is counted once per attempt. Errors
+ * count the failed calls other than throttling. Latencies are recorded in a fixed set of buckets, the same for every
+ * operation, and written as a JSON report or in the Prometheus text format.
+ */
+public class CallMetrics {
+    private static final Log LOG = LogFactory.getLog(CallMetrics.class);
+    private static final ObjectMapper MAPPER = SchemaTransformer.getMapper();
+    private static final String PROMETHEUS_PREFIX = "apigateway_importer_";
+
+    // upper bounds of the latency buckets in seconds, the last bucket is unbounded
+    static final double[] BUCKETS = { 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Record a call
+     * @param operation the name of the HAL client method called, e.g. createResource
+     * @param nanos the duration of the call
+     * @param throttled true if the call was rejected because of throttling
+     * @param failed true if the call failed for any other reason
+     */
+    public void record(String operation, long nanos, boolean throttled, boolean failed) {
+        operations.computeIfAbsent(operation, o -> new OperationMetrics()).record(nanos, throttled, failed);
+    }
+
+    /**
+     * Get the metrics of each operation called so far, sorted by operation name
+     */
+    public Map<String, OperationMetrics> getOperations() {
+        return new TreeMap<>(operations);
+    }
+
+    public long getCallCount() {
+        return operations.values().stream().mapToLong(OperationMetrics::getCount).sum();
+    }
+
+    public void writeJson(Path file) throws IOException {
+        final Map<String, Object> report = new LinkedHashMap<>();
+        getOperations().forEach((operation, metrics) -> report.put(operation, metrics.toJson()));
+
+        writeAtomically(file, MAPPER.writerWithDefaultPrettyPrinter().writeValueAsBytes(report));
+    }
+
+    /**
+     * Write the metrics in the Prometheus text exposition format, e.g. for the node exporter textfile collector
+     */
+    public void writePrometheus(Path file) throws IOException {
+        final StringBuilder out = new StringBuilder();
+        final Map<String, OperationMetrics> snapshot = getOperations();
+
+        header(out, "calls_total", "counter", "Remote calls made to API Gateway");
+        snapshot.forEach((operation, m) -> sample(out, "calls_total", operation, null, m.getCount()));
+
+        header(out, "call_errors_total", "counter", "Remote calls failed for a reason other than throttling");
+        snapshot.forEach((operation, m) -> sample(out, "call_errors_total", operation, null, m.getErrors()));
+
+        header(out, "call_throttles_total", "counter", "Remote calls rejected because of throttling");
+        snapshot.forEach((operation, m) -> sample(out, "call_throttles_total", operation, null, m.getThrottled()));
+
+        header(out, "call_duration_seconds", "histogram", "Duration of the remote calls");
+        snapshot.forEach((operation, m) -> {
+            final long[] cumulative = m.getCumulativeBuckets();
+            for (int i = 0; i < cumulative.length; i++) {
+                String le = i < BUCKETS.length ? formatDouble(BUCKETS[i]) : "+Inf";
+                sample(out, "call_duration_seconds_bucket", operation, le, cumulative[i]);
+            }
+            sample(out, "call_duration_seconds_sum", operation, null, m.getSumSeconds());
+            sample(out, "call_duration_seconds_count", operation, null, m.getCount());
+        });
+
+        // replaced atomically so that a scraper never reads a partial file
+        writeAtomically(file, out.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write the JSON report and the Prometheus file next to each other, e.g. metrics.json and metrics.prom
+     */
+    public void writeReports(String prefix) {
+        final Path json = Paths.get(prefix + ".json");
+        final Path prometheus = Paths.get(prefix + ".prom");
+
+        try {
+            writeJson(json);
+            writePrometheus(prometheus);
+            LOG.info(format("Wrote metrics of %d API Gateway calls to %s and %s", getCallCount(), json, prometheus));
+        } catch (IOException e) {
+            LOG.warn("Could not write API Gateway call metrics to " + prefix, e);
+        }
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(PROMETHEUS_PREFIX).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(PROMETHEUS_PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String operation, String le, Object value) {
+        out.append(PROMETHEUS_PREFIX).append(name).append("{operation=\"").append(operation).append('"');
+        if (le != null) {
+            out.append(",le=\"").append(le).append('"');
+        }
+        out.append("} ").append(value instanceof Double ? formatDouble((Double) value) : value).append('\n');
+    }
+
+    private static String formatDouble(double value) {
+        return Double.toString(value);
+    }
+
+    /**
+     * The metrics of a single operation
+     */
+    public static class OperationMetrics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS.length + 1);
+
+        void record(long nanos, boolean isThrottled, boolean isFailed) {
+            count.increment();
+            if (isThrottled) {
+                throttled.increment();
+            } else if (isFailed) {
+                errors.increment();
+            }
+
+            sumNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            buckets.incrementAndGet(getBucket(nanos));
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getThrottled() {
+            return throttled.sum();
+        }
+
+        public double getSumSeconds() {
+            return sumNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+        }
+
+        /**
+         * Get the number of calls at or below the upper bound of each bucket, the last bucket holds all calls
+         */
+        public long[] getCumulativeBuckets() {
+            final long[] cumulative = new long[buckets.length()];
+            long total = 0;
+            for (int i = 0; i < cumulative.length; i++) {
+                total += buckets.get(i);
+                cumulative[i] = total;
+            }
+            return cumulative;
+        }
+
+        private Map<String, Object> toJson() {
+            final Map<String, Object> json = new LinkedHashMap<>();
+            final long calls = getCount();
+
+            json.put("count", calls);
+            json.put("errors", getErrors());
+            json.put("throttled", getThrottled());
+            json.put("totalMillis", TimeUnit.NANOSECONDS.toMillis(sumNanos.sum()));
+            json.put("meanMillis", calls == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(sumNanos.sum() / calls));
+            json.put("maxMillis", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+
+            final List<Map<String, Object>> histogram = new ArrayList<>();
+            final long[] cumulative = getCumulativeBuckets();
+            for (int i = 0; i < cumulative.length; i++) {
+                final Map<String, Object> bucket = new LinkedHashMap<>();
+                bucket.put("le", i < BUCKETS.length ? BUCKETS[i] : "+Inf");
+                bucket.put("count", cumulative[i]);
+                histogram.add(bucket);
+            }
+            json.put("histogram", histogram);
+
+            return json;
+        }
+
+        private static int getBucket(long nanos) {
+            final double seconds = nanos / (double) TimeUnit.SECONDS.toNanos(1);
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (seconds <= BUCKETS[i]) {
+                    return i;
+                }
+            }
+            return BUCKETS.length;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.service.apigateway.importer.impl.SchemaTransformer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.hash.Hashing;
+import com.wordnik.swagger.util.Json;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.amazonaws.service.apigateway.importer.util.FileUtils.writeAtomically;
+
+/**
+ * Local store of the fingerprints of the components last imported into each API, one file per API
+ *
+ * A fingerprint is a hash of exactly what is sent for a model, a method or an integration. When an API is updated,
+ * components whose fingerprint didn't change since the last successful import are skipped without any remote
+ * reads or writes.
+ */
+public class FingerprintStore {
+    private static final Log LOG = LogFactory.getLog(FingerprintStore.class);
+    private static final ObjectMapper MAPPER = SchemaTransformer.getMapper();
+    private static final ObjectWriter SORTED_WRITER = Json.mapper().writer(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+    private final Path directory;
+
+    public FingerprintStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Load the fingerprints of an API
+     * @param ignoreStored if true, start with no stored fingerprints so that every component is imported
+     */
+    Fingerprints load(String apiId, boolean ignoreStored) {
+        final Path file = getFile(apiId);
+
+        if (ignoreStored || !Files.exists(file)) {
+            return new Fingerprints(Collections.emptyMap());
+        }
+
+        try {
+            return new Fingerprints(MAPPER.readValue(file.toFile(), new TypeReference<Map<String, String>>() {}));
+        } catch (IOException e) {
+            LOG.warn("Could not read fingerprints from " + file + ", all components will be imported", e);
+            return new Fingerprints(Collections.emptyMap());
+        }
+    }
+
+    /**
+     * Save the fingerprints recorded during an import, replacing the stored fingerprints of the API
+     */
+    void save(String apiId, Fingerprints fingerprints) {
+        final Path file = getFile(apiId);
+
+        try {
+            // an interrupted save never leaves a partial file
+            writeAtomically(file, out -> MAPPER.writerWithDefaultPrettyPrinter().writeValue(out, new TreeMap<>(fingerprints.current)));
+        } catch (IOException e) {
+            LOG.warn("Could not save fingerprints to " + file, e);
+        }
+    }
+
+    static String hash(String content) {
+        return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * Hash the JSON of a part of a swagger. The parser keeps maps, e.g. responses and vendor extensions, in no
+     * particular order, so map entries are sorted by key to give equal content the same fingerprint
+     */
+    static String hashJson(Object value) throws JsonProcessingException {
+        return hash(SORTED_WRITER.writeValueAsString(value));
+    }
+
+    private Path getFile(String apiId) {
+        return directory.resolve(apiId + ".json");
+    }
+
+    /**
+     * The fingerprints of a single import. Holds the fingerprints stored by the last import and records the
+     * fingerprints of the components applied or verified by the current import. Only recorded fingerprints are
+     * saved, so a component that failed or was never reached is imported again the next time
+     */
+    static class Fingerprints {
+        private final Map<String, String> stored;
+        private final Map<String, String> current = new ConcurrentHashMap<>();
+
+        Fingerprints(Map<String, String> stored) {
+            this.stored = stored;
+        }
+
+        boolean isUnchanged(String key, String fingerprint) {
+            return fingerprint.equals(stored.get(key));
+        }
+
+        void record(String key, String fingerprint) {
+            current.put(key, fingerprint);
+        }
+    }
+}
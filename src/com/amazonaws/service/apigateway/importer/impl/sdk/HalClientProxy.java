@@ -0,0 +1,175 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.services.apigateway.model.ApiGateway;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dynamic proxy around the API Gateway HAL client
+ *
+ * Every remote call made through a proxied object is passed to {@link #invokeRemote}. HAL objects returned by a call,
+ * directly or inside a list or map, are proxied in turn so that the whole object graph reachable from the
+ * {@link ApiGateway} client is covered. Reads of local properties and HAL internals ("_" methods) are not remote calls.
+ */
+abstract class HalClientProxy implements InvocationHandler {
+    private static final String HAL_MODEL_PACKAGE = ApiGateway.class.getPackage().getName();
+
+    @FunctionalInterface
+    interface RemoteCall {
+        Object call() throws Throwable;
+    }
+
+    private final Object target;
+
+    protected HalClientProxy(Object target) {
+        this.target = target;
+    }
+
+    /**
+     * Create a proxy handler of the same kind for a HAL object returned by a call
+     */
+    protected abstract HalClientProxy forTarget(Object target);
+
+    /**
+     * Perform a remote call
+     * @param method the HAL client method being called
+     * @param call the call to the underlying client
+     * @return the result of the call
+     */
+    protected abstract Object invokeRemote(Method method, RemoteCall call) throws Throwable;
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        final Object[] targetArgs = unwrap(args);
+
+        if (method.getDeclaringClass() == Object.class || !isRemote(method)) {
+            return wrap(invokeTarget(method, targetArgs));
+        }
+
+        return wrap(invokeRemote(method, () -> invokeTarget(method, targetArgs)));
+    }
+
+    protected Object wrap(Object result) {
+        if (result == null) {
+            return null;
+        }
+
+        if (result instanceof List) {
+            List<Object> wrapped = new ArrayList<>();
+            ((List<?>) result).forEach(item -> wrapped.add(wrap(item)));
+            return wrapped;
+        }
+
+        if (result instanceof Map) {
+            Map<Object, Object> wrapped = new LinkedHashMap<>();
+            ((Map<?, ?>) result).forEach((key, value) -> wrapped.put(key, wrap(value)));
+            return wrapped;
+        }
+
+        Class<?>[] interfaces = getHalInterfaces(result.getClass());
+        if (interfaces.length == 0) {
+            return result;
+        }
+
+        return Proxy.newProxyInstance(interfaces[0].getClassLoader(), interfaces, forTarget(result));
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Object[] unwrap(Object[] args) {
+        if (args == null) {
+            return null;
+        }
+
+        Object[] unwrapped = args.clone();
+        for (int i = 0; i < unwrapped.length; i++) {
+            if (unwrapped[i] != null && Proxy.isProxyClass(unwrapped[i].getClass())
+                    && Proxy.getInvocationHandler(unwrapped[i]) instanceof HalClientProxy) {
+                unwrapped[i] = ((HalClientProxy) Proxy.getInvocationHandler(unwrapped[i])).target;
+            }
+        }
+        return unwrapped;
+    }
+
+    /**
+     * Property getters return local state unless they follow a link to other HAL objects
+     */
+    static boolean isRemote(Method method) {
+        String name = method.getName();
+
+        if (name.startsWith("_")) {
+            return false;
+        }
+
+        if (name.startsWith("get") || name.startsWith("is")) {
+            return referencesHalType(method.getGenericReturnType());
+        }
+
+        return true;
+    }
+
+    private static boolean referencesHalType(Type type) {
+        if (type instanceof Class) {
+            return isHalType((Class<?>) type);
+        }
+
+        if (type instanceof ParameterizedType) {
+            for (Type arg : ((ParameterizedType) type).getActualTypeArguments()) {
+                if (referencesHalType(arg)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private Class<?>[] getHalInterfaces(Class<?> type) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Class<?> i : c.getInterfaces()) {
+                if (isHalType(i)) {
+                    interfaces.add(i);
+                }
+            }
+        }
+
+        return interfaces.toArray(new Class<?>[interfaces.size()]);
+    }
+
+    private static boolean isHalType(Class<?> type) {
+        return type.isInterface() && type.getPackage() != null && HAL_MODEL_PACKAGE.equals(type.getPackage().getName());
+    }
+}
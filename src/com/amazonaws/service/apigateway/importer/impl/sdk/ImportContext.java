@@ -0,0 +1,121 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.service.apigateway.importer.impl.SchemaTransformer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.wordnik.swagger.models.Operation;
+import com.wordnik.swagger.models.Swagger;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State of a single import: the swagger being imported, what is derived from it, and the state of the API
+ *
+ * A context is created for each import and passed explicitly through the import, so that a single importer can run
+ * concurrent imports. The context is immutable, the indexes and fingerprints it holds are safe for use by
+ * concurrent operations of the import
+ */
+final class ImportContext {
+    private final Swagger swagger;
+    private final Map<String, Map<String, Operation>> operations;
+    private final SchemaTransformer schemaTransformer;
+    private final Map<Object, JsonNode> schemas;
+    private final FingerprintStore.Fingerprints fingerprints;
+    private final ResourceIndex resources;
+    private final ModelCatalog models;
+    private final ApiSnapshot snapshot;
+    private final Map<String, CompletableFuture<Void>> generatedModels;
+
+    ImportContext(Swagger swagger, Map<String, Map<String, Operation>> operations,
+                  SchemaTransformer schemaTransformer, FingerprintStore.Fingerprints fingerprints) {
+        this(swagger, Collections.unmodifiableMap(operations), schemaTransformer,
+             Collections.synchronizedMap(new IdentityHashMap<>()), fingerprints, null, null, null, new ConcurrentHashMap<>());
+    }
+
+    private ImportContext(Swagger swagger, Map<String, Map<String, Operation>> operations,
+                          SchemaTransformer schemaTransformer, Map<Object, JsonNode> schemas,
+                          FingerprintStore.Fingerprints fingerprints, ResourceIndex resources, ModelCatalog models,
+                          ApiSnapshot snapshot, Map<String, CompletableFuture<Void>> generatedModels) {
+        this.swagger = swagger;
+        this.operations = operations;
+        this.schemaTransformer = schemaTransformer;
+        this.schemas = schemas;
+        this.fingerprints = fingerprints;
+        this.resources = resources;
+        this.models = models;
+        this.snapshot = snapshot;
+        this.generatedModels = generatedModels;
+    }
+
+    /**
+     * Get a context for the same swagger with the state of the API it is imported into
+     * @param snapshot the existing state of the API, null for a new API
+     */
+    ImportContext withApi(ResourceIndex resources, ModelCatalog models, ApiSnapshot snapshot) {
+        return new ImportContext(swagger, operations, schemaTransformer, schemas, fingerprints,
+                                 resources, models, snapshot, generatedModels);
+    }
+
+    Swagger getSwagger() {
+        return swagger;
+    }
+
+    /**
+     * Operations of the swagger keyed by full resource path, then by lower case HTTP method
+     */
+    Map<String, Map<String, Operation>> getOperations() {
+        return operations;
+    }
+
+    SchemaTransformer getSchemaTransformer() {
+        return schemaTransformer;
+    }
+
+    /**
+     * Generated schemas keyed by the swagger model or property they were generated from
+     */
+    Map<Object, JsonNode> getSchemas() {
+        return schemas;
+    }
+
+    FingerprintStore.Fingerprints getFingerprints() {
+        return fingerprints;
+    }
+
+    ResourceIndex getResources() {
+        return resources;
+    }
+
+    ModelCatalog getModels() {
+        return models;
+    }
+
+    ApiSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Creation of the models generated from inline schemas, keyed by model name, so that concurrent methods sharing a
+     * schema create its model only once
+     */
+    Map<String, CompletableFuture<Void>> getGeneratedModels() {
+        return generatedModels;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.apigateway.model.ApiGateway;
+
+import java.lang.reflect.Method;
+
+/**
+ * Records the count, outcome and latency of every remote call made through the API Gateway client
+ *
+ * Wrap the client with this proxy before wrapping it with the {@link ThrottlingHalClientProxy}, so that each attempt
+ * is recorded with the latency of the service, excluding the time spent waiting for the rate limiter.
+ */
+public class MetricsHalClientProxy extends HalClientProxy {
+    private final CallMetrics metrics;
+
+    private MetricsHalClientProxy(Object target, CallMetrics metrics) {
+        super(target);
+        this.metrics = metrics;
+    }
+
+    public static ApiGateway wrap(ApiGateway client, CallMetrics metrics) {
+        return (ApiGateway) new MetricsHalClientProxy(client, metrics).wrap(client);
+    }
+
+    @Override
+    protected HalClientProxy forTarget(Object target) {
+        return new MetricsHalClientProxy(target, metrics);
+    }
+
+    @Override
+    protected Object invokeRemote(Method method, RemoteCall call) throws Throwable {
+        final long start = System.nanoTime();
+        boolean throttled = false;
+        boolean failed = false;
+
+        try {
+            return call.call();
+        } catch (AmazonServiceException e) {
+            throttled = ThrottlingHalClientProxy.isThrottlingError(e);
+            failed = !throttled;
+            throw e;
+        } catch (Throwable t) {
+            failed = true;
+            throw t;
+        } finally {
+            metrics.record(method.getName(), System.nanoTime() - start, throttled, failed);
+        }
+    }
+}
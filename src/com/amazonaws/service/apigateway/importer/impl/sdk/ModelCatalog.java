@@ -0,0 +1,61 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.services.apigateway.model.Model;
+import com.amazonaws.services.apigateway.model.RestApi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory catalog of the models of an API, keyed by model name
+ *
+ * The catalog is loaded with a single read of the API models, or from a snapshot of the API, and must be kept up
+ * to date as models are created, updated and deleted during the import, so that model lookups don't need a remote
+ * read. The catalog is safe for use by concurrent operations
+ */
+class ModelCatalog {
+    private final Map<String, Model> models = new ConcurrentHashMap<>();
+
+    ModelCatalog(RestApi api) {
+        this(api.getModels().getItem());
+    }
+
+    ModelCatalog(Collection<Model> models) {
+        models.forEach(this::add);
+    }
+
+    void add(Model model) {
+        if (model != null) {
+            models.put(model.getName(), model);
+        }
+    }
+
+    void remove(Model model) {
+        models.remove(model.getName());
+    }
+
+    Optional<Model> get(String modelName) {
+        return Optional.ofNullable(models.get(modelName));
+    }
+
+    Collection<Model> getAll() {
+        return new ArrayList<>(models.values());
+    }
+}
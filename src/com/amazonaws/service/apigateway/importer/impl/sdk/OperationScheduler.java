@@ -0,0 +1,112 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs a dependency graph of remote operations with bounded concurrency
+ *
+ * Each operation starts once all of its dependencies have completed. After the first failure no new operations are
+ * started, and {@link #awaitAll()} rethrows that failure once the operations already running have finished.
+ * The graph must be built from a single thread.
+ */
+class OperationScheduler implements AutoCloseable {
+    private final ExecutorService executor;
+    private final List<CompletableFuture<?>> operations = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    OperationScheduler(int concurrency) {
+        this.executor = Executors.newFixedThreadPool(concurrency, new ThreadFactoryBuilder()
+                .setNameFormat("api-importer-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * Schedule an operation producing a value to run after the given dependencies
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> operation, CompletableFuture<?>... dependencies) {
+        CompletableFuture<T> future = CompletableFuture.allOf(dependencies)
+                .thenApplyAsync(ignored -> execute(operation), executor);
+        operations.add(future);
+        return future;
+    }
+
+    /**
+     * Schedule an operation to run after the given dependencies
+     */
+    CompletableFuture<Void> run(Runnable operation, CompletableFuture<?>... dependencies) {
+        return submit(() -> {
+            operation.run();
+            return null;
+        }, dependencies);
+    }
+
+    /**
+     * Wait for all scheduled operations to complete
+     * @throws RuntimeException the first failure of any operation
+     */
+    void awaitAll() {
+        CompletableFuture<?>[] scheduled = operations.toArray(new CompletableFuture<?>[operations.size()]);
+        operations.clear();
+
+        try {
+            CompletableFuture.allOf(scheduled).join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable t = failure.get() != null ? failure.get() : e;
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            throw t instanceof RuntimeException ? (RuntimeException) t : new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public void close() {
+        failure.compareAndSet(null, new CancellationException("Import aborted"));
+        executor.shutdown();
+
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> T execute(Supplier<T> operation) {
+        if (failure.get() != null) {
+            throw new CancellationException("Skipped after an earlier failure");
+        }
+
+        try {
+            return operation.get();
+        } catch (RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+/**
+ * Controls the rate of remote calls made to API Gateway
+ *
+ * Implementations must be thread-safe, a single limiter is shared by all calls made through the client
+ */
+public interface RateLimiter {
+
+    /**
+     * Block until a remote call is permitted
+     * @throws com.amazonaws.AmazonClientException if interrupted while waiting, the interrupt flag is kept
+     */
+    void acquire();
+
+    /**
+     * Called after a remote call completed without being throttled
+     */
+    void onSuccess();
+
+    /**
+     * Called after a remote call was rejected by the service because of throttling
+     */
+    void onThrottled();
+}
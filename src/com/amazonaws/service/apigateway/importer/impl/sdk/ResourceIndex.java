@@ -0,0 +1,93 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.services.apigateway.model.Resource;
+import com.amazonaws.services.apigateway.model.RestApi;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the resource tree of an API, keyed by (parent id, path part) and by full path
+ *
+ * The index is loaded with a single read of the API resources, or from a snapshot of the API. Resources created
+ * during the import must be added as they are created so that subsequent lookups don't need a remote read. The index
+ * is safe for use by concurrent operations
+ */
+class ResourceIndex {
+    private static final String ROOT_PATH = "/";
+
+    private final Map<String, Resource> resourcesByParent = new ConcurrentHashMap<>();
+    private final Map<String, Resource> resourcesByPath = new ConcurrentHashMap<>();
+
+    ResourceIndex(RestApi api) {
+        this(api.getResources().getItem());
+    }
+
+    ResourceIndex(Collection<Resource> resources) {
+        resources.forEach(this::add);
+    }
+
+    void add(Resource resource) {
+        resourcesByParent.put(getParentKey(resource.getParentId(), resource.getPathPart()), resource);
+
+        if (resource.getPath() != null) {
+            resourcesByPath.put(resource.getPath(), resource);
+        }
+    }
+
+    /**
+     * Remove a deleted resource, and its descendants which are deleted with it
+     */
+    void remove(Resource resource) {
+        resourcesByParent.remove(getParentKey(resource.getParentId(), resource.getPathPart()), resource);
+
+        if (resource.getPath() != null) {
+            final String prefix = resource.getPath() + "/";
+
+            resourcesByPath.remove(resource.getPath(), resource);
+            resourcesByPath.keySet().removeIf(path -> path.startsWith(prefix));
+            resourcesByParent.values().removeIf(r -> r.getPath() != null && r.getPath().startsWith(prefix));
+        }
+    }
+
+    Optional<Resource> get(String parentResourceId, String pathPart) {
+        return Optional.ofNullable(resourcesByParent.get(getParentKey(parentResourceId, pathPart)));
+    }
+
+    Optional<Resource> get(String fullPath) {
+        return Optional.ofNullable(resourcesByPath.get(fullPath));
+    }
+
+    Optional<Resource> getRoot() {
+        return get(ROOT_PATH);
+    }
+
+    Collection<Resource> getAll() {
+        return new ArrayList<>(resourcesByParent.values());
+    }
+
+    /*
+     * Blank path parts are treated as equal, the root resource has no path part
+     */
+    private String getParentKey(String parentResourceId, String pathPart) {
+        return StringUtils.defaultString(parentResourceId) + "/" + StringUtils.defaultIfBlank(pathPart, "");
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.apigateway.model.ApiGateway;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.String.format;
+
+/**
+ * Rate limits every remote call made through the API Gateway client and retries throttled calls
+ * with jittered exponential backoff
+ */
+public class ThrottlingHalClientProxy extends HalClientProxy {
+    private static final Log LOG = LogFactory.getLog(ThrottlingHalClientProxy.class);
+
+    private static final int MAX_RETRIES = 8;
+    private static final long BASE_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 20000;
+
+    private final RateLimiter rateLimiter;
+
+    private ThrottlingHalClientProxy(Object target, RateLimiter rateLimiter) {
+        super(target);
+        this.rateLimiter = rateLimiter;
+    }
+
+    public static ApiGateway wrap(ApiGateway client, RateLimiter rateLimiter) {
+        return (ApiGateway) new ThrottlingHalClientProxy(client, rateLimiter).wrap(client);
+    }
+
+    @Override
+    protected HalClientProxy forTarget(Object target) {
+        return new ThrottlingHalClientProxy(target, rateLimiter);
+    }
+
+    @Override
+    protected Object invokeRemote(Method method, RemoteCall call) throws Throwable {
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire();
+
+            try {
+                Object result = call.call();
+                rateLimiter.onSuccess();
+                return result;
+            } catch (AmazonServiceException e) {
+                if (!isThrottlingError(e) || attempt >= MAX_RETRIES) {
+                    throw e;
+                }
+
+                rateLimiter.onThrottled();
+
+                long backoff = getBackoffMillis(attempt);
+                LOG.info(format("Call to %s was throttled, retrying in %d ms", method.getName(), backoff));
+                sleep(method, backoff);
+            }
+        }
+    }
+
+    /*
+     * An interrupted backoff would escape the proxy as an UndeclaredThrowableException, so keep the interrupt flag and
+     * give up on the call instead
+     */
+    private static void sleep(Method method, long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException("Interrupted while waiting to retry throttled call to " + method.getName(), e);
+        }
+    }
+
+    static boolean isThrottlingError(AmazonServiceException e) {
+        return e.getStatusCode() == 429
+                || (e.getErrorCode() != null && (e.getErrorCode().contains("TooManyRequests")
+                || e.getErrorCode().contains("Throttl")));
+    }
+
+    /*
+     * Equal jitter: a random delay between half and all of the exponential backoff for the attempt
+     */
+    private long getBackoffMillis(int attempt) {
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << attempt);
+        return ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+    }
+}
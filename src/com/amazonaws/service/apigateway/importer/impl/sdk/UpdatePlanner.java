@@ -0,0 +1,144 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.service.apigateway.importer.impl.SchemaTransformer;
+import com.amazonaws.services.apigateway.model.Integration;
+import com.amazonaws.services.apigateway.model.IntegrationResponse;
+import com.amazonaws.services.apigateway.model.Method;
+import com.amazonaws.services.apigateway.model.MethodResponse;
+import com.amazonaws.services.apigateway.model.PatchOperation;
+import com.amazonaws.services.apigateway.model.PutIntegrationInput;
+import com.amazonaws.services.apigateway.model.PutIntegrationResponseInput;
+import com.amazonaws.services.apigateway.model.PutMethodResponseInput;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.amazonaws.service.apigateway.importer.util.PatchUtils.createAddOperation;
+import static com.amazonaws.service.apigateway.importer.util.PatchUtils.createRemoveOperation;
+import static com.amazonaws.service.apigateway.importer.util.PatchUtils.createReplaceOperation;
+
+/**
+ * Compares the remote state of an API with the state generated from Swagger, so that an update only
+ * sends the create, patch and delete operations that are actually needed
+ */
+class UpdatePlanner {
+    private static final ObjectMapper MAPPER = SchemaTransformer.getMapper();
+
+    private UpdatePlanner() {
+    }
+
+    /**
+     * Get the patch operations for the method settings that differ from the existing method
+     */
+    static List<PatchOperation> planMethodSettings(Method existing, String authorizationType, Boolean apiKeyRequired) {
+        List<PatchOperation> ops = new ArrayList<>();
+
+        if (!StringUtils.equalsIgnoreCase(existing.getAuthorizationType(), authorizationType)) {
+            ops.add(createReplaceOperation("/authorizationType", authorizationType));
+        }
+
+        if (!Objects.equals(toBoolean(existing.getApiKeyRequired()), toBoolean(apiKeyRequired))) {
+            ops.add(createReplaceOperation("/apiKeyRequired", String.valueOf(toBoolean(apiKeyRequired))));
+        }
+
+        return ops;
+    }
+
+    /**
+     * Get the patch operations that turn the existing request parameters into the given request parameters
+     * @param existing the existing parameters, keyed by parameter expression
+     * @param parameters the parameters from Swagger, keyed by parameter expression
+     */
+    static List<PatchOperation> planRequestParameters(Map<String, Boolean> existing, Map<String, Boolean> parameters) {
+        final Map<String, Boolean> current = orEmpty(existing);
+        final List<PatchOperation> ops = new ArrayList<>();
+
+        current.keySet().stream()
+                .filter(expression -> !parameters.containsKey(expression))
+                .forEach(expression -> ops.add(createRemoveOperation("/requestParameters/" + expression)));
+
+        parameters.forEach((expression, required) -> {
+            if (!current.containsKey(expression)) {
+                ops.add(createAddOperation("/requestParameters/" + expression, String.valueOf(required)));
+            } else if (!Objects.equals(toBoolean(current.get(expression)), toBoolean(required))) {
+                ops.add(createReplaceOperation("/requestParameters/" + expression, String.valueOf(required)));
+            }
+        });
+
+        return ops;
+    }
+
+    static boolean isMethodResponseChanged(MethodResponse existing, PutMethodResponseInput input) {
+        return !mapEquals(existing.getResponseParameters(), input.getResponseParameters())
+                || !mapEquals(existing.getResponseModels(), input.getResponseModels());
+    }
+
+    static boolean isIntegrationChanged(Integration existing, PutIntegrationInput input) {
+        return !StringUtils.equalsIgnoreCase(existing.getType(), input.getType())
+                || !Objects.equals(existing.getUri(), input.getUri())
+                || !StringUtils.equalsIgnoreCase(existing.getHttpMethod(), input.getHttpMethod())
+                || !Objects.equals(existing.getCredentials(), input.getCredentials())
+                || !Objects.equals(existing.getCacheNamespace(), input.getCacheNamespace())
+                || !mapEquals(existing.getRequestParameters(), input.getRequestParameters())
+                || !mapEquals(existing.getRequestTemplates(), input.getRequestTemplates())
+                || !orEmpty(existing.getCacheKeyParameters()).equals(orEmpty(input.getCacheKeyParameters()));
+    }
+
+    static boolean isIntegrationResponseChanged(IntegrationResponse existing, PutIntegrationResponseInput input) {
+        return !Objects.equals(existing.getSelectionPattern(), input.getSelectionPattern())
+                || !mapEquals(existing.getResponseParameters(), input.getResponseParameters())
+                || !mapEquals(existing.getResponseTemplates(), input.getResponseTemplates());
+    }
+
+    /**
+     * Compare schemas structurally, ignoring formatting and property order
+     */
+    static boolean isSchemaChanged(String existing, JsonNode schema) {
+        if (existing == null) {
+            return true;
+        }
+
+        try {
+            return !MAPPER.readTree(existing).equals(schema);
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    static <K, V> Map<K, V> orEmpty(Map<K, V> map) {
+        return map == null ? Collections.emptyMap() : map;
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    private static boolean mapEquals(Map<?, ?> m1, Map<?, ?> m2) {
+        return orEmpty(m1).equals(orEmpty(m2));
+    }
+
+    private static boolean toBoolean(Boolean b) {
+        return b != null && b;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.util;
+
+import com.amazonaws.services.apigateway.model.PatchDocument;
+import com.amazonaws.services.apigateway.model.PatchOperation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Collects the patch operations for a single target, e.g. a method or a model, and sends them with as few
+ * update calls as possible. Operations are sent in the order they were added, split into several documents
+ * only when there are more than the maximum number of operations per request
+ *
+ * @param <T> the type returned by the update call
+ */
+public class PatchAccumulator<T> {
+    private final Function<PatchDocument, T> update;
+    private final int maxOperations;
+    private final List<PatchOperation> operations = new ArrayList<>();
+
+    PatchAccumulator(Function<PatchDocument, T> update, int maxOperations) {
+        if (maxOperations < 1) {
+            throw new IllegalArgumentException("Invalid maximum number of patch operations: " + maxOperations);
+        }
+        this.update = update;
+        this.maxOperations = maxOperations;
+    }
+
+    public PatchAccumulator<T> add(PatchOperation op) {
+        operations.add(op);
+        return this;
+    }
+
+    public PatchAccumulator<T> addAll(Collection<PatchOperation> ops) {
+        operations.addAll(ops);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * Send all collected operations
+     * @return the result of the last update call, or empty if there was nothing to send
+     */
+    public Optional<T> flush() {
+        T result = null;
+
+        for (int i = 0; i < operations.size(); i += maxOperations) {
+            List<PatchOperation> batch = operations.subList(i, Math.min(i + maxOperations, operations.size()));
+            result = update.apply(PatchUtils.createPatchDocument(batch));
+        }
+
+        operations.clear();
+        return Optional.ofNullable(result);
+    }
+}
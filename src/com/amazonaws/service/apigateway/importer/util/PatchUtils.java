@@ -18,9 +18,16 @@ import com.amazonaws.services.apigateway.model.PatchDocument;
 import com.amazonaws.services.apigateway.model.PatchOperation;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Function;
 
 public class PatchUtils {
 
+    /**
+     * Conservative upper bound on the number of operations sent in a single patch request
+     */
+    public static final int MAX_PATCH_OPERATIONS = 50;
+
     public static PatchOperation createReplaceOperation(String path, String value) {
         PatchOperation op = new PatchOperation();
         op.setOp("replace");
@@ -52,4 +59,18 @@ public class PatchUtils {
         }
         return pd;
     }
+
+    public static PatchDocument createPatchDocument(Collection<PatchOperation> ops) {
+        PatchDocument pd = new PatchDocument();
+        pd.setPatchOperations(new ArrayList<>(ops));
+        return pd;
+    }
+
+    /**
+     * Create an accumulator which sends all operations collected for a target with the given update call,
+     * e.g. method::updateMethod
+     */
+    public static <T> PatchAccumulator<T> createPatchAccumulator(Function<PatchDocument, T> update) {
+        return new PatchAccumulator<>(update, MAX_PATCH_OPERATIONS);
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.config;
+
+import com.amazonaws.service.apigateway.importer.ApiFileImporter;
+import com.amazonaws.service.apigateway.importer.SwaggerApiImporter;
+import com.amazonaws.service.apigateway.importer.impl.ApiGatewaySwaggerFileImporter;
+import com.amazonaws.service.apigateway.importer.impl.sdk.AdaptiveRateLimiter;
+import com.amazonaws.service.apigateway.importer.impl.sdk.ApiGatewaySdkSwaggerApiImporter;
+import com.amazonaws.service.apigateway.importer.impl.sdk.SimulatedApiGateway;
+import com.amazonaws.service.apigateway.importer.impl.sdk.ThrottlingHalClientProxy;
+import com.amazonaws.services.apigateway.model.ApiGateway;
+import com.google.inject.AbstractModule;
+import com.google.inject.Singleton;
+import com.google.inject.name.Names;
+
+/**
+ * Wires the importer to a {@link SimulatedApiGateway} instead of AWS
+ *
+ * The simulated client is wrapped with the same rate limiting and retry proxy as the real client, so imports run
+ * against the simulator exercise the client side rate limit and the backoff on throttling errors.
+ */
+public class SimulatedApiGatewayModule extends AbstractModule {
+    private final SimulatedApiGateway simulator;
+    private final double rateLimit;
+    private final int rateBurst;
+    private final int concurrency;
+
+    public SimulatedApiGatewayModule(SimulatedApiGateway simulator) {
+        this(simulator, ApiImporterModule.DEFAULT_RATE_LIMIT, ApiImporterModule.DEFAULT_RATE_BURST,
+             ApiImporterModule.DEFAULT_CONCURRENCY);
+    }
+
+    public SimulatedApiGatewayModule(SimulatedApiGateway simulator, double rateLimit, int rateBurst, int concurrency) {
+        this.simulator = simulator;
+        this.rateLimit = rateLimit;
+        this.rateBurst = rateBurst;
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    protected void configure() {
+        bind(ApiFileImporter.class).to(ApiGatewaySwaggerFileImporter.class);
+        bind(SwaggerApiImporter.class).to(ApiGatewaySdkSwaggerApiImporter.class).in(Singleton.class);
+        bind(SimulatedApiGateway.class).toInstance(simulator);
+        bind(ApiGateway.class).toInstance(ThrottlingHalClientProxy.wrap(simulator.getClient(),
+                new AdaptiveRateLimiter(rateLimit, rateLimit, rateBurst)));
+        bindConstant().annotatedWith(Names.named("concurrency")).to(concurrency);
+    }
+}
@@ -41,10 +41,12 @@ import java.util.Arrays;
 import java.util.Optional;
 import java.util.function.Predicate;
 
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -150,6 +152,17 @@ public class ApiGatewaySwaggerApiImporterTest {
     }
 
     //    todo: add more tests
+    @Test
+    public void testImport_invalid_model_fails_before_create() throws Exception {
+        try {
+            importer.importApi(getResourcePath("/invalid-ref.json"));
+            fail("Expected import to fail for an undefined model reference");
+        } catch (IllegalStateException expected) {
+        }
+
+        verify(client, never()).createRestApi(any());
+    }
+
     private String getResourcePath(String path) throws URISyntaxException {
         return Paths.get(getClass().getResource(path).toURI()).toString();
     }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.amazonaws.service.apigateway.importer.ApiFileImporter;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchImporterTest {
+
+    @Test
+    public void testImportAll() {
+        Map<String, String> deployed = new ConcurrentHashMap<>();
+
+        BatchImporter batch = new BatchImporter(() -> new ApiFileImporter() {
+            @Override
+            public String importApi(String filePath) {
+                return "created-" + filePath;
+            }
+
+            @Override
+            public void updateApi(String apiId, String filePath) {
+                if (filePath.equals("broken.json")) {
+                    throw new IllegalStateException("Invalid schema json was generated");
+                }
+            }
+
+            @Override
+            public void deploy(String apiId, String deploymentStage) {
+                deployed.put(apiId, deploymentStage);
+            }
+
+            @Override
+            public void deleteApi(String apiId) {
+            }
+        });
+
+        ImportManifest manifest = new ImportManifest();
+        manifest.setImports(Arrays.asList(entry("orders.json", null, "prod"),
+                                          entry("broken.json", "b1", "prod"),
+                                          entry("payments.json", "p1", null)));
+
+        List<BatchImporter.Result> results = batch.importAll(manifest, 2);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("created-orders.json", results.get(0).getApiId());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Invalid schema json was generated", results.get(1).getError());
+        assertTrue(results.get(2).isSuccess());
+
+        assertEquals(1, deployed.size());
+        assertEquals("prod", deployed.get("created-orders.json"));
+    }
+
+    private ImportManifest.Entry entry(String file, String apiId, String stage) {
+        ImportManifest.Entry entry = new ImportManifest.Entry();
+        entry.setFile(file);
+        entry.setApiId(apiId);
+        entry.setCreate(apiId == null);
+        entry.setStage(stage);
+        return entry;
+    }
+}
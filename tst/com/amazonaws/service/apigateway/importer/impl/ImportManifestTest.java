@@ -0,0 +1,78 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ImportManifestTest {
+
+    @Test
+    public void testLoad() throws IOException {
+        Path dir = Files.createTempDirectory("manifest");
+        Path manifest = write(dir, "{\"imports\":[" +
+                "{\"file\":\"orders.json\",\"create\":true}," +
+                "{\"file\":\"/specs/payments.json\",\"apiId\":\"a1b2c3d4e5\",\"stage\":\"prod\"}]}");
+
+        ImportManifest loaded = ImportManifest.load(manifest.toString());
+
+        assertEquals(2, loaded.getImports().size());
+
+        ImportManifest.Entry create = loaded.getImports().get(0);
+        assertTrue(create.isCreate());
+        assertEquals(new File(dir.toFile(), "orders.json").getPath(), create.getFile());
+
+        ImportManifest.Entry update = loaded.getImports().get(1);
+        assertFalse(update.isCreate());
+        assertEquals("a1b2c3d4e5", update.getApiId());
+        assertEquals("prod", update.getStage());
+        assertEquals("/specs/payments.json", update.getFile());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoad_createAndUpdate() throws IOException {
+        Path manifest = write(Files.createTempDirectory("manifest"),
+                              "{\"imports\":[{\"file\":\"orders.json\",\"create\":true,\"apiId\":\"a1b2c3d4e5\"}]}");
+
+        ImportManifest.load(manifest.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoad_duplicateApiId() throws IOException {
+        Path manifest = write(Files.createTempDirectory("manifest"), "{\"imports\":[" +
+                "{\"file\":\"orders.json\",\"apiId\":\"a1b2c3d4e5\"}," +
+                "{\"file\":\"payments.json\",\"apiId\":\"a1b2c3d4e5\",\"stage\":\"prod\"}]}");
+
+        ImportManifest.load(manifest.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoad_empty() throws IOException {
+        ImportManifest.load(write(Files.createTempDirectory("manifest"), "{\"imports\":[]}").toString());
+    }
+
+    private Path write(Path dir, String content) throws IOException {
+        return Files.write(dir.resolve("manifest.json"), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.amazonaws.service.apigateway.importer.ApiFileImporter;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ImportServerTest {
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private ImportServer server;
+    private Path tokenFile;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ImportServer(new BatchImporter(() -> new ApiFileImporter() {
+            @Override
+            public String importApi(String filePath) {
+                calls.add("create " + filePath);
+                return "a1b2c3d4e5";
+            }
+
+            @Override
+            public void updateApi(String apiId, String filePath) {
+                throw new IllegalStateException("Invalid schema json was generated");
+            }
+
+            @Override
+            public void deploy(String apiId, String deploymentStage) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                calls.add("deploy " + apiId + " " + deploymentStage);
+            }
+
+            @Override
+            public void deleteApi(String apiId) {
+                calls.add("delete " + apiId);
+            }
+        }), 2);
+
+        tokenFile = Files.createTempDirectory("import-server").resolve("server-token");
+        server.start(0, tokenFile);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testCreateJob() throws IOException {
+        HttpURLConnection connection = post("{\"action\":\"create\",\"file\":\"/specs/api.json\",\"stage\":\"prod\"}");
+
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(read(connection.getInputStream()).contains("\"apiId\":\"a1b2c3d4e5\""));
+        assertEquals("create /specs/api.json", calls.get(0));
+        assertEquals("deploy a1b2c3d4e5 prod", calls.get(1));
+    }
+
+    @Test
+    public void testFailedJob() throws IOException {
+        HttpURLConnection connection = post("{\"action\":\"update\",\"apiId\":\"a1b2c3d4e5\",\"file\":\"/specs/api.json\"}");
+
+        assertEquals(500, connection.getResponseCode());
+        assertTrue(read(connection.getErrorStream()).contains("\"error\":\"Invalid schema json was generated\""));
+    }
+
+    @Test
+    public void testInvalidJob() throws IOException {
+        assertEquals(400, post("{\"action\":\"update\",\"file\":\"/specs/api.json\"}").getResponseCode());
+        assertEquals(400, post("{\"action\":\"rename\"}").getResponseCode());
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    public void testTokenFileIsOwnerOnly() throws IOException {
+        assertEquals(64, Files.readAllBytes(tokenFile).length);
+        assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(tokenFile));
+
+        server.stop();
+        assertFalse(Files.exists(tokenFile));
+    }
+
+    @Test
+    public void testJobWithoutTokenIsRejected() throws IOException {
+        HttpURLConnection connection = post("{\"action\":\"delete\",\"apiId\":\"a1b2c3d4e5\"}", "application/json", null);
+
+        assertEquals(401, connection.getResponseCode());
+        assertTrue(read(connection.getErrorStream()).startsWith("{\"error\":"));
+
+        assertEquals(401, post("{\"action\":\"delete\",\"apiId\":\"a1b2c3d4e5\"}", "application/json", "0123").getResponseCode());
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    public void testJobMustBeJson() throws IOException {
+        String job = "{\"action\":\"delete\",\"apiId\":\"a1b2c3d4e5\"}";
+
+        assertEquals(415, post(job, "text/plain", token()).getResponseCode());
+        assertEquals(415, post(job, null, token()).getResponseCode());
+        assertTrue(calls.isEmpty());
+
+        assertEquals(200, post(job, "application/json; charset=utf-8", token()).getResponseCode());
+        assertEquals("delete a1b2c3d4e5", calls.get(0));
+    }
+
+    @Test
+    public void testOtherHostIsRejected() throws IOException {
+        String job = "{\"action\":\"delete\",\"apiId\":\"a1b2c3d4e5\"}";
+
+        try (Socket socket = new Socket("127.0.0.1", server.getAddress().getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /jobs HTTP/1.1\r\n" +
+                    "Host: attacker.example.com:" + server.getAddress().getPort() + "\r\n" +
+                    "Content-Type: application/json\r\n" +
+                    ImportServer.TOKEN_HEADER + ": " + token() + "\r\n" +
+                    "Content-Length: " + job.length() + "\r\n" +
+                    "Connection: close\r\n\r\n" + job).getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            assertTrue(read(socket.getInputStream()).startsWith("HTTP/1.1 403"));
+        }
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    public void testJobsForTheSameApiDontOverlap() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (String stage : Arrays.asList("test", "prod")) {
+                statuses.add(clients.submit(() -> post("{\"action\":\"deploy\",\"apiId\":\"a1b2c3d4e5\",\"stage\":\"" + stage + "\"}").getResponseCode()));
+            }
+
+            for (Future<Integer> status : statuses) {
+                assertEquals(200, (int) status.get());
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        assertEquals(2, calls.size());
+        assertEquals(1, maxRunning.get());
+    }
+
+    private HttpURLConnection post(String job) throws IOException {
+        return post(job, "application/json", token());
+    }
+
+    private HttpURLConnection post(String job, String contentType, String token) throws IOException {
+        URL url = new URL("http", "127.0.0.1", server.getAddress().getPort(), "/jobs");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        if (contentType != null) {
+            connection.setRequestProperty("Content-Type", contentType);
+        }
+        if (token != null) {
+            connection.setRequestProperty(ImportServer.TOKEN_HEADER, token);
+        }
+
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(job.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return connection;
+    }
+
+    private String token() throws IOException {
+        return new String(Files.readAllBytes(tokenFile), StandardCharsets.US_ASCII);
+    }
+
+    private String read(InputStream in) throws IOException {
+        try (InputStream body = in) {
+            return IOUtils.toString(body, "UTF-8");
+        }
+    }
+}
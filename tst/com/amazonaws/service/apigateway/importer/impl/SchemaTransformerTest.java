@@ -0,0 +1,136 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaTransformerTest {
+    private static final String MODELS = "{" +
+            "\"Product\":{\"type\":\"object\",\"properties\":{\"price\":{\"$ref\":\"#/definitions/Price\"}}}," +
+            "\"Price\":{\"type\":\"object\",\"properties\":{\"currency\":{\"$ref\":\"#/definitions/Currency\"}}}," +
+            "\"Currency\":{\"type\":\"string\"}," +
+            "\"Order\":{\"type\":\"object\",\"properties\":{\"Product\":{\"type\":\"integer\"}}}," +
+            "\"Unused\":{\"type\":\"string\"}}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testFlatten_transitiveReferences() throws IOException {
+        SchemaTransformer transformer = new SchemaTransformer(MODELS);
+
+        JsonNode flattened = mapper.readTree(transformer.flatten("{\"type\":\"array\",\"items\":{\"$ref\":\"#/definitions/Product\"}}"));
+
+        JsonNode definitions = flattened.get("definitions");
+        assertEquals(3, definitions.size());
+        assertTrue(definitions.has("Product"));
+        assertTrue(definitions.has("Price"));
+        assertTrue(definitions.has("Currency"));
+        assertFalse(definitions.has("Unused"));
+        assertEquals("#/definitions/Product", flattened.get("items").get("$ref").textValue());
+    }
+
+    @Test
+    public void testFlatten_sharedDefinitionsAreNotModified() throws IOException {
+        SchemaTransformer transformer = new SchemaTransformer(MODELS);
+
+        String first = transformer.flatten("{\"$ref\":\"#/definitions/Price\"}");
+        transformer.flatten("{\"$ref\":\"#/definitions/Product\"}");
+
+        assertEquals(first, transformer.flatten("{\"$ref\":\"#/definitions/Price\"}"));
+    }
+
+    @Test
+    public void testFlatten_resolvesDefinitionByName() throws IOException {
+        SchemaTransformer transformer = new SchemaTransformer(MODELS);
+
+        // the Order definition has a nested property with the same name as the Product definition
+        JsonNode flattened = mapper.readTree(transformer.flatten("{\"$ref\":\"#/definitions/Product\"}"));
+
+        assertEquals("object", flattened.get("definitions").get("Product").get("type").textValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFlatten_missingDefinition() {
+        new SchemaTransformer(MODELS).flatten("{\"$ref\":\"#/definitions/Missing\"}");
+    }
+
+    @Test
+    public void testGetSchemaName() {
+        assertEquals("Foo", SchemaTransformer.getSchemaName("#/definitions/Foo"));
+        assertEquals("a/b", SchemaTransformer.getSchemaName("#/definitions/a~1b"));
+        assertEquals("Foo", SchemaTransformer.getSchemaName("https://apigateway.us-east-1.amazonaws.com/restapis/abc/models/Foo"));
+    }
+
+    @Test
+    public void testFlatten_tree() throws IOException {
+        SchemaTransformer transformer = new SchemaTransformer(mapper.readTree(MODELS));
+
+        JsonNode flattened = transformer.flatten(mapper.readTree("{\"$ref\":\"#/definitions/Price\"}"));
+
+        assertEquals(2, flattened.get("definitions").size());
+        assertEquals(mapper.readTree(transformer.flatten("{\"$ref\":\"#/definitions/Price\"}")), flattened);
+    }
+
+    @Test
+    public void testFlatten_recursiveDefinitions() throws IOException {
+        SchemaTransformer transformer = new SchemaTransformer("{" +
+                "\"Node\":{\"type\":\"object\",\"properties\":{\"children\":{\"type\":\"array\",\"items\":{\"$ref\":\"#/definitions/Node\"}}}}," +
+                "\"Comment\":{\"type\":\"object\",\"properties\":{\"thread\":{\"$ref\":\"#/definitions/Thread\"}}}," +
+                "\"Thread\":{\"type\":\"object\",\"properties\":{\"first\":{\"$ref\":\"#/definitions/Comment\"}}}}");
+
+        JsonNode node = mapper.readTree(transformer.flatten("{\"$ref\":\"#/definitions/Node\"}"));
+        assertEquals(1, node.get("definitions").size());
+
+        JsonNode comment = mapper.readTree(transformer.flatten("{\"$ref\":\"#/definitions/Comment\"}"));
+        assertEquals(2, comment.get("definitions").size());
+        assertEquals("#/definitions/Comment",
+                     comment.get("definitions").get("Thread").get("properties").get("first").get("$ref").textValue());
+    }
+
+    @Test
+    public void testFlatten_longReferenceChain() {
+        final int length = 10000;
+
+        ObjectNode models = mapper.createObjectNode();
+        for (int i = 0; i < length; i++) {
+            ObjectNode definition = models.putObject("D" + i).put("type", "object");
+            if (i + 1 < length) {
+                definition.putObject("properties").putObject("next").put("$ref", "#/definitions/D" + (i + 1));
+            }
+        }
+
+        JsonNode flattened = new SchemaTransformer(models).flatten(mapper.createObjectNode().put("$ref", "#/definitions/D0"));
+
+        assertEquals(length, flattened.get("definitions").size());
+    }
+
+    @Test
+    public void testFlatten_noReferences() throws IOException {
+        SchemaTransformer transformer = new SchemaTransformer(MODELS);
+
+        JsonNode flattened = mapper.readTree(transformer.flatten("{\"type\":\"string\"}"));
+
+        assertEquals(0, flattened.get("definitions").size());
+    }
+}
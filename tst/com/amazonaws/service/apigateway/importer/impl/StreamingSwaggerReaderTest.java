@@ -0,0 +1,65 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.wordnik.swagger.models.Swagger;
+import com.wordnik.swagger.util.Json;
+import io.swagger.parser.SwaggerParser;
+import org.junit.Test;
+
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingSwaggerReaderTest {
+
+    @Test
+    public void testRead_sameAsParser() throws Exception {
+        assertSameAsParser("/apigateway.json");
+        assertSameAsParser("/petstore.json");
+        assertSameAsParser("/uber.yaml");
+    }
+
+    @Test
+    public void testRead_externalReference() throws Exception {
+        assertFalse(StreamingSwaggerReader.read(getResourcePath("/external-ref.json")).isPresent());
+    }
+
+    @Test
+    public void testRead_swagger12() throws Exception {
+        assertFalse(StreamingSwaggerReader.read(getResourcePath("/basic.json")).isPresent());
+    }
+
+    @Test
+    public void testRead_missingFile() {
+        assertFalse(StreamingSwaggerReader.read("does-not-exist.json").isPresent());
+    }
+
+    private void assertSameAsParser(String path) throws URISyntaxException {
+        final Swagger expected = new SwaggerParser().read(getResourcePath(path));
+        final Optional<Swagger> actual = StreamingSwaggerReader.read(getResourcePath(path));
+
+        assertTrue(actual.isPresent());
+        assertEquals(Json.mapper().valueToTree(expected), Json.mapper().valueToTree(actual.get()));
+    }
+
+    private String getResourcePath(String path) throws URISyntaxException {
+        return Paths.get(getClass().getResource(path).toURI()).toString();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.wordnik.swagger.models.Swagger;
+import com.wordnik.swagger.util.Json;
+import io.swagger.parser.SwaggerParser;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SwaggerCacheTest {
+    private Path directory;
+    private Path specs;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("swagger-cache");
+        specs = Files.createTempDirectory("specs");
+    }
+
+    @Test
+    public void testCachedDocumentIsReturned() throws IOException {
+        SwaggerCache cache = new SwaggerCache(directory, Long.MAX_VALUE);
+        Path file = write("api.json", "{\"swagger\": \"2.0\"}");
+
+        Swagger swagger = new Swagger();
+        swagger.setBasePath("/v1");
+        cache.put(file, Collections.singleton(file), swagger);
+
+        Optional<Swagger> cached = cache.get(file);
+        assertTrue(cached.isPresent());
+        assertEquals("/v1", cached.get().getBasePath());
+    }
+
+    @Test
+    public void testCachedDocumentIsComplete() throws IOException, URISyntaxException {
+        SwaggerCache cache = new SwaggerCache(directory, Long.MAX_VALUE);
+
+        // paths, body and path parameters, responses, vendor extensions and security definitions must all survive
+        // the round trip
+        for (String name : Arrays.asList("apigateway.json", "petstore-simple.json")) {
+            Path file = specs.resolve(name);
+            Files.copy(Paths.get(getClass().getResource("/" + name).toURI()), file);
+
+            Swagger swagger = new SwaggerParser().read(file.toString());
+            cache.put(file, Collections.singleton(file), swagger);
+
+            Optional<Swagger> cached = cache.get(file);
+            assertTrue(name, cached.isPresent());
+            assertEquals(name, Json.mapper().valueToTree(swagger), Json.mapper().valueToTree(cached.get()));
+        }
+    }
+
+    @Test
+    public void testChangedFileIsMiss() throws IOException {
+        SwaggerCache cache = new SwaggerCache(directory, Long.MAX_VALUE);
+        Path file = write("api.json", "{\"swagger\": \"2.0\"}");
+        cache.put(file, Collections.singleton(file), new Swagger());
+
+        write("api.json", "{\"swagger\": \"2.0\", \"basePath\": \"/v2\"}");
+
+        assertFalse(cache.get(file).isPresent());
+    }
+
+    @Test
+    public void testChangedReferencedFileIsMiss() throws IOException {
+        SwaggerCache cache = new SwaggerCache(directory, Long.MAX_VALUE);
+        Path file = write("api.json", "{\"swagger\": \"2.0\"}");
+        Path common = write("common.json", "{\"definitions\": {}}");
+        cache.put(file, new HashSet<>(Arrays.asList(file, common)), new Swagger());
+
+        write("common.json", "{\"definitions\": {\"Error\": {}}}");
+
+        assertFalse(cache.get(file).isPresent());
+    }
+
+    @Test
+    public void testIdenticalFileInOtherDirectoryIsMiss() throws IOException {
+        SwaggerCache cache = new SwaggerCache(directory, Long.MAX_VALUE);
+        Path file = write("api.json", "{\"swagger\": \"2.0\"}");
+        cache.put(file, Collections.singleton(file), new Swagger());
+
+        // same content, but its relative references resolve to other files
+        Path other = Files.createDirectories(specs.resolve("other")).resolve("api.json");
+        Files.copy(file, other);
+
+        assertFalse(cache.get(other).isPresent());
+        assertTrue(cache.get(specs.resolve("other/../api.json")).isPresent());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws IOException {
+        Path first = write("first.json", "{\"swagger\": \"2.0\", \"basePath\": \"/first\"}");
+        Path second = write("second.json", "{\"swagger\": \"2.0\", \"basePath\": \"/second\"}");
+
+        new SwaggerCache(directory, Long.MAX_VALUE).put(first, Collections.singleton(first), new Swagger());
+        final long entrySize;
+        try (Stream<Path> entries = Files.list(directory)) {
+            Path entry = entries.findFirst().get();
+            entrySize = Files.size(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis() - 60000));
+        }
+
+        // room for one entry only
+        SwaggerCache cache = new SwaggerCache(directory, entrySize + entrySize / 2);
+        cache.put(second, Collections.singleton(second), new Swagger());
+
+        try (Stream<Path> entries = Files.list(directory)) {
+            assertEquals(1, entries.count());
+        }
+        assertFalse(cache.get(first).isPresent());
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(specs.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
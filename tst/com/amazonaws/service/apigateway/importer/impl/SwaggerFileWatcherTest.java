@@ -0,0 +1,102 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SwaggerFileWatcherTest {
+
+    @Test
+    public void testFindReferencedFiles() throws IOException {
+        Path dir = Files.createTempDirectory("swagger");
+        Files.createDirectories(dir.resolve("common"));
+
+        Path api = write(dir.resolve("api.json"), "{\"paths\":{\"/products\":{\"get\":{\"responses\":{" +
+                "\"200\":{\"schema\":{\"$ref\":\"#/definitions/Product\"}}," +
+                "\"500\":{\"schema\":{\"$ref\":\"common/errors.json#/definitions/Error\"}}," +
+                "\"503\":{\"schema\":{\"$ref\":\"http://example.com/errors.json#/definitions/Error\"}}}}}}}");
+        write(dir.resolve("common/errors.json"), "{\"definitions\":{\"Error\":{\"$ref\":\"../types.json#/definitions/Message\"}}}");
+        write(dir.resolve("types.json"), "{\"definitions\":{\"Message\":{\"type\":\"string\"}}}");
+
+        Set<Path> files = SwaggerFileWatcher.findReferencedFiles(api);
+
+        assertEquals(3, files.size());
+        assertTrue(files.contains(api.toAbsolutePath().normalize()));
+        assertTrue(files.contains(dir.resolve("common/errors.json").toAbsolutePath().normalize()));
+        assertTrue(files.contains(dir.resolve("types.json").toAbsolutePath().normalize()));
+    }
+
+    @Test
+    public void testWatchingContinuesWhenReferencedDirectoryIsDeleted() throws Exception {
+        Path dir = Files.createTempDirectory("swagger");
+        Path common = Files.createDirectories(dir.resolve("common"));
+        Path errors = write(common.resolve("errors.json"), "{\"definitions\":{\"Error\":{\"type\":\"string\"}}}");
+        Path api = write(dir.resolve("api.json"), getApi("v1"));
+
+        Semaphore changes = new Semaphore(0);
+        SwaggerFileWatcher watcher = new SwaggerFileWatcher(api, 100);
+        Thread watching = new Thread(() -> {
+            try {
+                watcher.watch(changes::release);
+            } catch (IOException | InterruptedException | ClosedWatchServiceException ignored) {
+            }
+        });
+        watching.start();
+
+        try {
+            Thread.sleep(500);
+
+            Files.delete(errors);
+            Files.delete(common);
+            write(api, getApi("v2"));
+            assertTrue(changes.tryAcquire(10, TimeUnit.SECONDS));
+
+            // the directory is watched again once it is back
+            Files.createDirectories(common);
+            write(errors, "{\"definitions\":{\"Error\":{\"type\":\"string\"}}}");
+            write(api, getApi("v3"));
+            assertTrue(changes.tryAcquire(10, TimeUnit.SECONDS));
+
+            write(errors, "{\"definitions\":{\"Error\":{\"type\":\"object\"}}}");
+            assertTrue(changes.tryAcquire(10, TimeUnit.SECONDS));
+            assertTrue(watching.isAlive());
+        } finally {
+            watching.interrupt();
+            watcher.close();
+            watching.join(10000);
+        }
+    }
+
+    private String getApi(String version) {
+        return "{\"info\":{\"version\":\"" + version + "\"},\"paths\":{\"/products\":{\"get\":{\"responses\":{" +
+                "\"500\":{\"schema\":{\"$ref\":\"common/errors.json#/definitions/Error\"}}}}}}}";
+    }
+
+    private Path write(Path file, String content) throws IOException {
+        return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
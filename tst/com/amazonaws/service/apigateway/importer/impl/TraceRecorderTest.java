@@ -0,0 +1,91 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TraceRecorderTest {
+
+    @Test
+    public void testNestedSpans() {
+        TraceRecorder trace = TraceRecorder.create();
+
+        try (TraceRecorder.Span ignored = trace.span("import", "create petstore.json")) {
+            trace.run("parse", "parse petstore.json", () -> { });
+            assertEquals("x", trace.call("models", "model Pet", () -> "x"));
+        }
+
+        List<TraceRecorder.Event> events = trace.getEvents();
+        assertEquals(3, events.size());
+
+        // spans are recorded when closed, the enclosing span last
+        TraceRecorder.Event outer = events.get(2);
+        assertEquals("import", outer.getCategory());
+        for (TraceRecorder.Event inner : events.subList(0, 2)) {
+            assertTrue(inner.getStartNanos() >= outer.getStartNanos());
+            assertTrue(inner.getStartNanos() + inner.getDurationNanos() <= outer.getStartNanos() + outer.getDurationNanos());
+        }
+    }
+
+    @Test
+    public void testSpansAreRecordedOnTheirThread() {
+        TraceRecorder trace = TraceRecorder.create();
+
+        trace.run("sync", "sync", () -> CompletableFuture.runAsync(() -> trace.run("methods", "GET /pets", () -> { })).join());
+
+        List<TraceRecorder.Event> events = trace.getEvents();
+        assertEquals("GET /pets", events.get(0).getName());
+        assertTrue(events.get(0).getThreadId() != events.get(1).getThreadId());
+    }
+
+    @Test
+    public void testDisabled() {
+        TraceRecorder.DISABLED.run("parse", "parse petstore.json", () -> { });
+
+        assertTrue(TraceRecorder.DISABLED.getEvents().isEmpty());
+    }
+
+    @Test
+    public void testWriteChromeTraceEvents() throws Exception {
+        TraceRecorder trace = TraceRecorder.create();
+        trace.run("models", "model Pet", () -> { });
+
+        Path file = Files.createTempDirectory("trace").resolve("trace.json");
+        trace.write(file);
+
+        JsonNode events = new ObjectMapper().readTree(file.toFile()).get("traceEvents");
+        assertEquals(2, events.size());
+
+        JsonNode span = events.get(0);
+        assertEquals("model Pet", span.get("name").asText());
+        assertEquals("models", span.get("cat").asText());
+        assertEquals("X", span.get("ph").asText());
+        assertTrue(span.has("ts") && span.has("dur") && span.has("tid"));
+
+        JsonNode thread = events.get(1);
+        assertEquals("M", thread.get("ph").asText());
+        assertEquals(Thread.currentThread().getName(), thread.get("args").get("name").asText());
+    }
+}
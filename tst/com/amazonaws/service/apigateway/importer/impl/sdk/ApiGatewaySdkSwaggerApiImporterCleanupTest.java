@@ -0,0 +1,74 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.service.apigateway.importer.config.SimulatedApiGatewayModule;
+import com.google.inject.Guice;
+import com.wordnik.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Updates an API in the simulator with swaggers that remove or move resources, and checks which resources are deleted
+ */
+public class ApiGatewaySdkSwaggerApiImporterCleanupTest {
+    private SimulatedApiGateway simulator;
+    private ApiGatewaySdkSwaggerApiImporter importer;
+    private String apiId;
+
+    @Before
+    public void setUp() throws Exception {
+        simulator = new SimulatedApiGateway();
+        importer = Guice.createInjector(new SimulatedApiGatewayModule(simulator))
+                .getInstance(ApiGatewaySdkSwaggerApiImporter.class);
+
+        apiId = importer.createApi(read("/cleanup-tree.json"), "cleanup-tree.json");
+        assertEquals(new HashSet<>(Arrays.asList("/", "/a", "/a/b", "/a/b/c", "/d")), simulator.getResourcePaths(apiId));
+
+        simulator.resetCallCounts();
+    }
+
+    @Test
+    public void testOnlyTopmostRemovedResourceIsDeleted() throws URISyntaxException {
+        importer.updateApi(apiId, read("/cleanup-removed.json"));
+
+        // deleting /a/b deletes /a/b/c with it
+        assertEquals(1, simulator.getCallCount("deleteResource"));
+        assertEquals(new HashSet<>(Arrays.asList("/", "/a", "/d")), simulator.getResourcePaths(apiId));
+    }
+
+    @Test
+    public void testMovedResourceIsDeleted() throws URISyntaxException {
+        importer.updateApi(apiId, read("/cleanup-moved.json"));
+
+        // /d/b has the same path part as /a/b, the resource at the old path is still deleted
+        assertEquals(1, simulator.getCallCount("deleteResource"));
+        assertEquals(2, simulator.getCallCount("createResource"));
+        assertEquals(new HashSet<>(Arrays.asList("/", "/a", "/d", "/d/b", "/d/b/c")), simulator.getResourcePaths(apiId));
+        assertEquals(new HashSet<>(Arrays.asList("GET")), simulator.getHttpMethods(apiId, "/d/b/c"));
+    }
+
+    private Swagger read(String resource) throws URISyntaxException {
+        return new SwaggerParser().read(Paths.get(getClass().getResource(resource).toURI()).toString());
+    }
+}
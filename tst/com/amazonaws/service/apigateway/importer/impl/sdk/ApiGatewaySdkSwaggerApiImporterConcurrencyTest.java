@@ -0,0 +1,202 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.service.apigateway.importer.config.ApiImporterTestModule;
+import com.amazonaws.services.apigateway.model.ApiGateway;
+import com.amazonaws.services.apigateway.model.CreateModelInput;
+import com.amazonaws.services.apigateway.model.CreateResourceInput;
+import com.amazonaws.services.apigateway.model.CreateRestApiInput;
+import com.amazonaws.services.apigateway.model.Integration;
+import com.amazonaws.services.apigateway.model.Method;
+import com.amazonaws.services.apigateway.model.Model;
+import com.amazonaws.services.apigateway.model.Models;
+import com.amazonaws.services.apigateway.model.Resource;
+import com.amazonaws.services.apigateway.model.Resources;
+import com.amazonaws.services.apigateway.model.RestApi;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.wordnik.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import org.apache.log4j.BasicConfigurator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs many concurrent imports of different swaggers on a single importer against a mocked API Gateway, and checks
+ * that each API only received the resources and models of its own swagger
+ */
+public class ApiGatewaySdkSwaggerApiImporterConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int IMPORTS = 32;
+
+    private final AtomicInteger ids = new AtomicInteger();
+
+    // what each created API received, keyed by API id
+    private final Map<String, String> apiNames = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> apiModels = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> apiPaths = new ConcurrentHashMap<>();
+
+    private ApiGatewaySdkSwaggerApiImporter importer;
+
+    @Before
+    public void setUp() throws Exception {
+        BasicConfigurator.configure();
+
+        Injector injector = Guice.createInjector(new ApiImporterTestModule());
+
+        ApiGateway client = injector.getInstance(ApiGateway.class);
+        when(client.createRestApi(any())).thenAnswer(i -> createApi((CreateRestApiInput) i.getArguments()[0]));
+
+        importer = injector.getInstance(ApiGatewaySdkSwaggerApiImporter.class);
+    }
+
+    @Test
+    public void testConcurrentImports() throws Exception {
+        final Swagger gateway = new SwaggerParser().read(getResourcePath("/apigateway.json"));
+        final Swagger petstore = new SwaggerParser().read(getResourcePath("/petstore-simple.json"));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<String>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < IMPORTS; i++) {
+                final Swagger swagger = i % 2 == 0 ? gateway : petstore;
+
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return importer.createApi(swagger, "swagger.json");
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<String> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(IMPORTS, apiNames.size());
+
+        apiNames.forEach((apiId, name) -> {
+            final Set<String> models = apiModels.get(apiId);
+            final Set<String> paths = apiPaths.get(apiId);
+
+            if (name.equals(gateway.getInfo().getTitle())) {
+                assertTrue(models.containsAll(gateway.getDefinitions().keySet()));
+                assertFalse(models.contains("PetInput"));
+                assertTrue(paths.contains("/v1/products"));
+                assertFalse(paths.contains("/api/pets"));
+            } else {
+                assertTrue(models.containsAll(petstore.getDefinitions().keySet()));
+                assertFalse(models.contains("Product"));
+                assertTrue(paths.contains("/api/pets"));
+                assertFalse(paths.contains("/v1/products"));
+            }
+        });
+    }
+
+    /*
+     * Mock a new API that records the models and resources created in it
+     */
+    private RestApi createApi(CreateRestApiInput input) {
+        final String apiId = "api" + ids.incrementAndGet();
+        final Set<String> models = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        final Set<String> paths = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        final Map<String, Resource> resources = new ConcurrentHashMap<>();
+
+        apiNames.put(apiId, input.getName());
+        apiModels.put(apiId, models);
+        apiPaths.put(apiId, paths);
+
+        Resource root = createResource(apiId, resources, null, "/", "");
+
+        Resources mockResources = mock(Resources.class);
+        when(mockResources.getItem()).thenReturn(Collections.singletonList(root));
+
+        Models mockModels = mock(Models.class);
+        when(mockModels.getItem()).thenReturn(Collections.emptyList());
+
+        RestApi api = mock(RestApi.class);
+        when(api.getId()).thenReturn(apiId);
+        when(api.getResources()).thenReturn(mockResources);
+        when(api.getModels()).thenReturn(mockModels);
+        when(api.getResourceById(any())).thenAnswer(i -> resources.get((String) i.getArguments()[0]));
+        when(api.createModel(any())).thenAnswer(i -> {
+            CreateModelInput modelInput = (CreateModelInput) i.getArguments()[0];
+            models.add(modelInput.getName());
+
+            Model model = mock(Model.class);
+            when(model.getName()).thenReturn(modelInput.getName());
+            return model;
+        });
+
+        return api;
+    }
+
+    private Resource createResource(String apiId, Map<String, Resource> resources, String parentId, String path, String pathPart) {
+        final String resourceId = apiId + "-" + ids.incrementAndGet();
+
+        Integration integration = mock(Integration.class);
+
+        Method method = mock(Method.class);
+        when(method.putIntegration(any())).thenReturn(integration);
+
+        Resource resource = mock(Resource.class);
+        when(resource.getId()).thenReturn(resourceId);
+        when(resource.getParentId()).thenReturn(parentId);
+        when(resource.getPath()).thenReturn(path);
+        when(resource.getPathPart()).thenReturn(pathPart);
+        when(resource.putMethod(any(), any())).thenReturn(method);
+        when(resource.createResource(any())).thenAnswer(i -> {
+            String part = ((CreateResourceInput) i.getArguments()[0]).getPathPart();
+            String childPath = (path.equals("/") ? "" : path) + "/" + part;
+
+            apiPaths.get(apiId).add(childPath);
+            return createResource(apiId, resources, resourceId, childPath, part);
+        });
+
+        resources.put(resourceId, resource);
+        return resource;
+    }
+
+    private String getResourcePath(String path) throws URISyntaxException {
+        return Paths.get(getClass().getResource(path).toURI()).toString();
+    }
+}
@@ -79,6 +79,13 @@ public class ApiGatewaySdkSwaggerApiImporterTest {
         assertEquals("/v1/1/2", client.buildResourcePath(basePath, path));
     }
 
+    @Test
+    public void testGetParentPath() {
+        assertEquals("/v1/1", client.getParentPath("/v1/1/2"));
+        assertEquals("/", client.getParentPath("/v1"));
+        assertEquals("/", client.getParentPath("/"));
+    }
+
     @Test
     public void testBuildResourcePath_bothMissingSlash() {
         String basePath = "v1";
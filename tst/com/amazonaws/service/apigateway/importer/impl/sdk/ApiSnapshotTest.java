@@ -0,0 +1,148 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.apigateway.model.Integration;
+import com.amazonaws.services.apigateway.model.Method;
+import com.amazonaws.services.apigateway.model.MethodResponse;
+import com.amazonaws.services.apigateway.model.Models;
+import com.amazonaws.services.apigateway.model.Resource;
+import com.amazonaws.services.apigateway.model.Resources;
+import com.amazonaws.services.apigateway.model.RestApi;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ApiSnapshotTest {
+
+    @Test
+    public void testCrawl() {
+        MethodResponse response = mock(MethodResponse.class);
+        Integration integration = mock(Integration.class);
+
+        Method get = mock(Method.class);
+        when(get.getMethodResponses()).thenReturn(Collections.singletonMap("200", response));
+        when(get.getMethodIntegration()).thenReturn(integration);
+
+        Method post = mock(Method.class);
+        when(post.getMethodIntegration()).thenThrow(serviceException(404));
+
+        Map<String, Method> methods = new HashMap<>();
+        methods.put("GET", get);
+        methods.put("POST", post);
+
+        Resource root = mock(Resource.class);
+        when(root.getId()).thenReturn("root");
+
+        Resource child = mock(Resource.class);
+        when(child.getId()).thenReturn("child");
+        when(child.getResourceMethods()).thenReturn(methods);
+
+        Resources resources = mock(Resources.class);
+        when(resources.getItem()).thenReturn(Arrays.asList(root, child));
+
+        Models models = mock(Models.class);
+        when(models.getItem()).thenReturn(Collections.emptyList());
+
+        RestApi api = mock(RestApi.class);
+        when(api.getResources()).thenReturn(resources);
+        when(api.getModels()).thenReturn(models);
+
+        ApiSnapshot snapshot;
+        try (OperationScheduler scheduler = new OperationScheduler(4)) {
+            snapshot = ApiSnapshot.crawl(api, scheduler);
+        }
+
+        assertEquals(2, snapshot.getResources().size());
+        assertTrue(snapshot.getMethods("root").isEmpty());
+        assertEquals(2, snapshot.getMethods("child").size());
+
+        ApiSnapshot.MethodSnapshot getState = snapshot.getMethod("child", "get").get();
+        assertSame(get, getState.getMethod());
+        assertSame(response, getState.getResponses().get("200"));
+        assertSame(integration, getState.getIntegration().get());
+
+        assertFalse(snapshot.getMethod("child", "post").get().getIntegration().isPresent());
+        verify(child, times(1)).getResourceMethods();
+    }
+
+    @Test
+    public void testMethodDetailsAreReadOnFirstUse() {
+        Method get = mock(Method.class);
+
+        Resource resource = mock(Resource.class);
+        when(resource.getId()).thenReturn("pets");
+        when(resource.getResourceMethods()).thenReturn(Collections.singletonMap("GET", get));
+
+        ApiSnapshot.MethodSnapshot state = crawl(resource).getMethod("pets", "GET").get();
+        assertSame(get, state.getMethod());
+        verify(get, never()).getMethodResponses();
+        verify(get, never()).getMethodIntegration();
+
+        state.getResponses();
+        state.getIntegration();
+        state.getIntegrationResponses();
+        verify(get, times(1)).getMethodResponses();
+        verify(get, times(1)).getMethodIntegration();
+    }
+
+    @Test(expected = AmazonServiceException.class)
+    public void testIntegrationReadFailureIsRethrown() {
+        Method get = mock(Method.class);
+        when(get.getMethodIntegration()).thenThrow(serviceException(500));
+
+        Resource resource = mock(Resource.class);
+        when(resource.getId()).thenReturn("pets");
+        when(resource.getResourceMethods()).thenReturn(Collections.singletonMap("GET", get));
+
+        crawl(resource).getMethod("pets", "GET").get().getIntegration();
+    }
+
+    private ApiSnapshot crawl(Resource resource) {
+        Resources resources = mock(Resources.class);
+        when(resources.getItem()).thenReturn(Collections.singletonList(resource));
+
+        Models models = mock(Models.class);
+        when(models.getItem()).thenReturn(Collections.emptyList());
+
+        RestApi api = mock(RestApi.class);
+        when(api.getResources()).thenReturn(resources);
+        when(api.getModels()).thenReturn(models);
+
+        try (OperationScheduler scheduler = new OperationScheduler(4)) {
+            return ApiSnapshot.crawl(api, scheduler);
+        }
+    }
+
+    private AmazonServiceException serviceException(int statusCode) {
+        AmazonServiceException e = new AmazonServiceException("failed");
+        e.setStatusCode(statusCode);
+        return e;
+    }
+}
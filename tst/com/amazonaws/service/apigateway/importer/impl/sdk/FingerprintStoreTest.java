@@ -0,0 +1,110 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FingerprintStoreTest {
+    private Path directory;
+    private FingerprintStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("fingerprints");
+        store = new FingerprintStore(directory);
+    }
+
+    @Test
+    public void testRecordedFingerprintsAreSaved() {
+        FingerprintStore.Fingerprints fingerprints = store.load("abc123", false);
+        assertFalse(fingerprints.isUnchanged("model Product", "1"));
+
+        fingerprints.record("model Product", "1");
+        store.save("abc123", fingerprints);
+
+        FingerprintStore.Fingerprints loaded = store.load("abc123", false);
+        assertTrue(loaded.isUnchanged("model Product", "1"));
+        assertFalse(loaded.isUnchanged("model Product", "2"));
+        assertFalse(store.load("other", false).isUnchanged("model Product", "1"));
+    }
+
+    @Test
+    public void testOnlyRecordedFingerprintsAreKept() {
+        FingerprintStore.Fingerprints fingerprints = store.load("abc123", false);
+        fingerprints.record("model Product", "1");
+        fingerprints.record("model Price", "1");
+        store.save("abc123", fingerprints);
+
+        FingerprintStore.Fingerprints next = store.load("abc123", false);
+        next.record("model Product", "1");
+        store.save("abc123", next);
+
+        assertTrue(store.load("abc123", false).isUnchanged("model Product", "1"));
+        assertFalse(store.load("abc123", false).isUnchanged("model Price", "1"));
+    }
+
+    @Test
+    public void testForceIgnoresStoredFingerprints() {
+        FingerprintStore.Fingerprints fingerprints = store.load("abc123", false);
+        fingerprints.record("model Product", "1");
+        store.save("abc123", fingerprints);
+
+        assertFalse(store.load("abc123", true).isUnchanged("model Product", "1"));
+    }
+
+    @Test
+    public void testMapOrderDoesNotChangeFingerprint() throws IOException {
+        Map<String, Object> integration = new LinkedHashMap<>();
+        integration.put("type", "aws");
+        integration.put("uri", "arn:aws:apigateway:us-east-1:lambda:path/functions/hello/invocations");
+        integration.put("requestTemplates", map("application/json", "json template", "application/xml", "xml template"));
+
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("requestTemplates", map("application/xml", "xml template", "application/json", "json template"));
+        reordered.put("uri", "arn:aws:apigateway:us-east-1:lambda:path/functions/hello/invocations");
+        reordered.put("type", "aws");
+
+        assertEquals(FingerprintStore.hashJson(integration), FingerprintStore.hashJson(reordered));
+
+        reordered.put("type", "http");
+        assertFalse(FingerprintStore.hashJson(integration).equals(FingerprintStore.hashJson(reordered)));
+    }
+
+    @Test
+    public void testUnreadableFileIsIgnored() throws IOException {
+        Files.write(directory.resolve("abc123.json"), "{not json".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(store.load("abc123", false).isUnchanged("model Product", "1"));
+    }
+
+    private Map<String, String> map(String k1, String v1, String k2, String v2) {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put(k1, v1);
+        map.put(k2, v2);
+        return map;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.apigateway.model.ApiGateway;
+import com.amazonaws.services.apigateway.model.CreateResourceInput;
+import com.amazonaws.services.apigateway.model.CreateRestApiInput;
+import com.amazonaws.services.apigateway.model.Resource;
+import com.amazonaws.services.apigateway.model.RestApi;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MetricsHalClientProxyTest {
+
+    @Test
+    public void testCallsAreRecordedPerOperation() {
+        SimulatedApiGateway simulator = new SimulatedApiGateway();
+        CallMetrics metrics = new CallMetrics();
+        ApiGateway client = MetricsHalClientProxy.wrap(simulator.getClient(), metrics);
+
+        RestApi api = client.createRestApi(new CreateRestApiInput().withName("test"));
+        api.getId();
+        Resource root = api.getResources().getItem().get(0);
+        root.createResource(new CreateResourceInput().withPathPart("a"));
+        root.createResource(new CreateResourceInput().withPathPart("b"));
+
+        try {
+            api.getResourceById("missing");
+            fail("Expected a not found error");
+        } catch (AmazonServiceException expected) {
+        }
+
+        assertEquals(2, metrics.getOperations().get("createResource").getCount());
+        assertEquals(1, metrics.getOperations().get("getResourceById").getErrors());
+        assertEquals(simulator.getCallCount(), metrics.getCallCount());
+
+        // every call falls in one of the buckets
+        long[] buckets = metrics.getOperations().get("createResource").getCumulativeBuckets();
+        assertEquals(2, buckets[buckets.length - 1]);
+    }
+
+    @Test
+    public void testEachThrottledAttemptIsRecorded() {
+        SimulatedApiGateway simulator = new SimulatedApiGateway(0, 50, 1);
+        CallMetrics metrics = new CallMetrics();
+        ApiGateway client = ThrottlingHalClientProxy.wrap(MetricsHalClientProxy.wrap(simulator.getClient(), metrics),
+                                                          new AdaptiveRateLimiter(100, 100, 5));
+
+        Resource root = client.createRestApi(new CreateRestApiInput().withName("test")).getResources().getItem().get(0);
+        for (int i = 0; i < 10; i++) {
+            root.createResource(new CreateResourceInput().withPathPart("r" + i));
+        }
+
+        CallMetrics.OperationMetrics createResource = metrics.getOperations().get("createResource");
+        assertEquals(simulator.getCallCount("createResource"), createResource.getCount());
+        assertEquals(10, createResource.getCount() - createResource.getThrottled());
+        assertEquals(0, createResource.getErrors());
+        assertEquals(simulator.getThrottledCount(),
+                     metrics.getOperations().values().stream().mapToLong(CallMetrics.OperationMetrics::getThrottled).sum());
+    }
+
+    @Test
+    public void testReports() throws Exception {
+        CallMetrics metrics = new CallMetrics();
+        metrics.record("createResource", 3_000_000, false, false);
+        metrics.record("createResource", 40_000_000, true, false);
+        metrics.record("putMethod", 20_000_000_000L, false, true);
+
+        Path dir = Files.createTempDirectory("metrics");
+        metrics.writeReports(dir.resolve("run").toString());
+
+        JsonNode json = new ObjectMapper().readTree(dir.resolve("run.json").toFile());
+        assertEquals(2, json.get("createResource").get("count").asInt());
+        assertEquals(1, json.get("createResource").get("throttled").asInt());
+        assertEquals(1, json.get("putMethod").get("errors").asInt());
+
+        String prometheus = new String(Files.readAllBytes(dir.resolve("run.prom")), StandardCharsets.UTF_8);
+        assertTrue(prometheus.contains("# TYPE apigateway_importer_call_duration_seconds histogram\n"));
+        assertTrue(prometheus.contains("apigateway_importer_calls_total{operation=\"createResource\"} 2\n"));
+        assertTrue(prometheus.contains("apigateway_importer_call_throttles_total{operation=\"createResource\"} 1\n"));
+        assertTrue(prometheus.contains("apigateway_importer_call_errors_total{operation=\"putMethod\"} 1\n"));
+        assertTrue(prometheus.contains("apigateway_importer_call_duration_seconds_bucket{operation=\"createResource\",le=\"0.005\"} 1\n"));
+        assertTrue(prometheus.contains("apigateway_importer_call_duration_seconds_bucket{operation=\"createResource\",le=\"0.05\"} 2\n"));
+        assertTrue(prometheus.contains("apigateway_importer_call_duration_seconds_bucket{operation=\"putMethod\",le=\"10.0\"} 0\n"));
+        assertTrue(prometheus.contains("apigateway_importer_call_duration_seconds_bucket{operation=\"putMethod\",le=\"+Inf\"} 1\n"));
+        assertTrue(prometheus.contains("apigateway_importer_call_duration_seconds_count{operation=\"putMethod\"} 1\n"));
+    }
+}
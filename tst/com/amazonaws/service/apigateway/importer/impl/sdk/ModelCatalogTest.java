@@ -0,0 +1,92 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.services.apigateway.model.Model;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ModelCatalogTest {
+    private Model product;
+    private Model error;
+    private ModelCatalog catalog;
+
+    @Before
+    public void setUp() {
+        product = model("Product");
+        error = model("Error");
+
+        catalog = new ModelCatalog(Arrays.asList(product, error));
+    }
+
+    @Test
+    public void testGet() {
+        assertSame(product, catalog.get("Product").get());
+        assertSame(error, catalog.get("Error").get());
+        assertFalse(catalog.get("Price").isPresent());
+    }
+
+    @Test
+    public void testAddCreatedModel() {
+        Model price = model("Price");
+        catalog.add(price);
+
+        assertSame(price, catalog.get("Price").get());
+        assertEquals(3, catalog.getAll().size());
+
+        // an updated model replaces the model of the same name
+        Model updated = model("Product");
+        catalog.add(updated);
+
+        assertSame(updated, catalog.get("Product").get());
+        assertEquals(3, catalog.getAll().size());
+    }
+
+    @Test
+    public void testRemoveDeletedModel() {
+        catalog.remove(error);
+
+        assertFalse(catalog.get("Error").isPresent());
+        assertEquals(1, catalog.getAll().size());
+    }
+
+    @Test
+    public void testGetAllReturnsCopy() {
+        Collection<Model> all = catalog.getAll();
+
+        // models can be deleted while iterating over all models
+        all.forEach(catalog::remove);
+
+        assertEquals(2, all.size());
+        assertTrue(all.containsAll(Arrays.asList(product, error)));
+        assertTrue(catalog.getAll().isEmpty());
+    }
+
+    private Model model(String name) {
+        Model model = mock(Model.class);
+        when(model.getName()).thenReturn(name);
+        return model;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class OperationSchedulerTest {
+
+    @Test
+    public void testDependenciesRunFirst() {
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        try (OperationScheduler scheduler = new OperationScheduler(4)) {
+            CompletableFuture<String> parent = scheduler.submit(() -> {
+                order.add("parent");
+                return "parent";
+            });
+            CompletableFuture<Void> child1 = scheduler.run(() -> order.add("child1"), parent);
+            CompletableFuture<Void> child2 = scheduler.run(() -> order.add("child2"), parent);
+            scheduler.run(() -> order.add("leaf"), child1, child2);
+
+            scheduler.awaitAll();
+        }
+
+        assertEquals(4, order.size());
+        assertEquals("parent", order.get(0));
+        assertEquals("leaf", order.get(3));
+    }
+
+    @Test
+    public void testFailureStopsDependents() {
+        AtomicInteger ran = new AtomicInteger();
+
+        try (OperationScheduler scheduler = new OperationScheduler(2)) {
+            CompletableFuture<Void> failing = scheduler.run(() -> {
+                throw new IllegalStateException("failed");
+            });
+            scheduler.run(ran::incrementAndGet, failing);
+
+            scheduler.awaitAll();
+            fail("expected the failure of the first operation to be rethrown");
+        } catch (IllegalStateException e) {
+            assertEquals("failed", e.getMessage());
+        }
+
+        assertEquals(0, ran.get());
+    }
+
+    @Test
+    public void testSchedulerIsReusableAfterAwait() {
+        AtomicInteger ran = new AtomicInteger();
+
+        try (OperationScheduler scheduler = new OperationScheduler(2)) {
+            scheduler.run(ran::incrementAndGet);
+            scheduler.awaitAll();
+            scheduler.run(ran::incrementAndGet);
+            scheduler.awaitAll();
+        }
+
+        assertEquals(2, ran.get());
+    }
+}
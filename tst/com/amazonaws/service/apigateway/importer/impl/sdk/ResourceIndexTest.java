@@ -0,0 +1,103 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.services.apigateway.model.Resource;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ResourceIndexTest {
+    private Resource root;
+    private Resource products;
+    private Resource product;
+    private ResourceIndex index;
+
+    @Before
+    public void setUp() {
+        root = resource("r0", null, null, "/");
+        products = resource("r1", "r0", "products", "/products");
+        product = resource("r2", "r1", "{id}", "/products/{id}");
+
+        index = new ResourceIndex(Arrays.asList(root, products, product));
+    }
+
+    @Test
+    public void testGet() {
+        assertSame(products, index.get("r0", "products").get());
+        assertSame(product, index.get("r1", "{id}").get());
+        assertSame(product, index.get("/products/{id}").get());
+
+        assertFalse(index.get("r0", "{id}").isPresent());
+        assertFalse(index.get("/{id}").isPresent());
+        assertEquals(3, index.getAll().size());
+    }
+
+    @Test
+    public void testRoot() {
+        assertSame(root, index.getRoot().get());
+
+        // the root resource has no path part, blank path parts match it
+        assertSame(root, index.get(null, "").get());
+        assertSame(root, index.get(null, null).get());
+    }
+
+    @Test
+    public void testAddCreatedResource() {
+        Resource prices = resource("r3", "r2", "prices", "/products/{id}/prices");
+        index.add(prices);
+
+        assertSame(prices, index.get("r2", "prices").get());
+        assertSame(prices, index.get("/products/{id}/prices").get());
+        assertEquals(4, index.getAll().size());
+    }
+
+    @Test
+    public void testRemoveDeletedResource() {
+        Resource prices = resource("r3", "r2", "prices", "/products/{id}/prices");
+        Resource orders = resource("r4", "r0", "orders", "/orders");
+        index.add(prices);
+        index.add(orders);
+
+        // descendants are deleted with the resource
+        index.remove(products);
+
+        assertFalse(index.get("r0", "products").isPresent());
+        assertFalse(index.get("/products").isPresent());
+        assertFalse(index.get("r1", "{id}").isPresent());
+        assertFalse(index.get("/products/{id}/prices").isPresent());
+
+        assertSame(orders, index.get("/orders").get());
+        assertEquals(2, index.getAll().size());
+        assertTrue(index.getAll().containsAll(Arrays.asList(root, orders)));
+    }
+
+    private Resource resource(String id, String parentId, String pathPart, String path) {
+        Resource resource = mock(Resource.class);
+        when(resource.getId()).thenReturn(id);
+        when(resource.getParentId()).thenReturn(parentId);
+        when(resource.getPathPart()).thenReturn(pathPart);
+        when(resource.getPath()).thenReturn(path);
+        return resource;
+    }
+}
@@ -0,0 +1,960 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.apigateway.model.ApiGateway;
+import com.amazonaws.services.apigateway.model.CreateDeploymentInput;
+import com.amazonaws.services.apigateway.model.CreateModelInput;
+import com.amazonaws.services.apigateway.model.CreateResourceInput;
+import com.amazonaws.services.apigateway.model.CreateRestApiInput;
+import com.amazonaws.services.apigateway.model.Deployment;
+import com.amazonaws.services.apigateway.model.Integration;
+import com.amazonaws.services.apigateway.model.IntegrationResponse;
+import com.amazonaws.services.apigateway.model.MethodResponse;
+import com.amazonaws.services.apigateway.model.Model;
+import com.amazonaws.services.apigateway.model.Models;
+import com.amazonaws.services.apigateway.model.PatchDocument;
+import com.amazonaws.services.apigateway.model.PatchOperation;
+import com.amazonaws.services.apigateway.model.PutIntegrationInput;
+import com.amazonaws.services.apigateway.model.PutIntegrationResponseInput;
+import com.amazonaws.services.apigateway.model.PutMethodInput;
+import com.amazonaws.services.apigateway.model.PutMethodResponseInput;
+import com.amazonaws.services.apigateway.model.Resource;
+import com.amazonaws.services.apigateway.model.Resources;
+import com.amazonaws.services.apigateway.model.RestApi;
+import com.amazonaws.services.apigateway.model.RestApis;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * In-process stand-in for the API Gateway service, for exercising the importer end to end without AWS
+ *
+ * The simulator keeps the state of the APIs it creates in memory and exposes it through the HAL client interfaces:
+ * rest apis, resources, methods, method responses, integrations, integration responses, models and deployments.
+ * Every remote call (as classified by {@link HalClientProxy#isRemote}) is counted, delayed by the configured latency
+ * and rejected with a 429 TooManyRequestsException once the account token bucket is empty, so that import strategies
+ * can be compared for wall time, call count and backoff behaviour offline.
+ *
+ * Calls the simulator doesn't implement fail with an {@link UnsupportedOperationException}, property reads it doesn't
+ * track return null.
+ */
+public class SimulatedApiGateway {
+    private static final String DEFAULT_CONTENT_TYPE = "application/json";
+
+    private final TokenBucket bucket;
+    private final long latencyMillis;
+    private final Map<String, Long> operationLatencyMillis = new ConcurrentHashMap<>();
+
+    private final Map<String, RestApiState> apis = new LinkedHashMap<>();
+    private final ApiGateway client;
+    private final AtomicLong ids = new AtomicLong(0x1000000000L);
+
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final AtomicInteger throttled = new AtomicInteger();
+
+    /**
+     * @param latencyMillis the latency added to every remote call
+     * @param rate the sustained rate of remote calls per second accepted by the service
+     * @param burst the number of calls accepted in a burst above the sustained rate
+     */
+    public SimulatedApiGateway(long latencyMillis, double rate, int burst) {
+        this.latencyMillis = latencyMillis;
+        this.bucket = new TokenBucket(rate, burst);
+        this.client = expose(ApiGateway.class, new ApiGatewayState());
+    }
+
+    /**
+     * A simulator without latency or throttling
+     */
+    public SimulatedApiGateway() {
+        this(0, Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Override the latency of a single operation, e.g. createResource
+     */
+    public SimulatedApiGateway withLatency(String operation, long millis) {
+        operationLatencyMillis.put(operation, millis);
+        return this;
+    }
+
+    public ApiGateway getClient() {
+        return client;
+    }
+
+    /**
+     * Get the number of remote calls made, including throttled calls
+     */
+    public int getCallCount() {
+        return calls.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    public int getCallCount(String operation) {
+        final AtomicInteger count = calls.get(operation);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Get the number of remote calls made per operation, sorted by operation name
+     */
+    public Map<String, Integer> getCallCounts() {
+        final Map<String, Integer> counts = new TreeMap<>();
+        calls.forEach((operation, count) -> counts.put(operation, count.get()));
+        return counts;
+    }
+
+    public int getThrottledCount() {
+        return throttled.get();
+    }
+
+    /**
+     * Start counting remote calls from zero, e.g. to count only the calls of an update
+     */
+    public void resetCallCounts() {
+        calls.clear();
+        throttled.set(0);
+    }
+
+    public synchronized Set<String> getApiIds() {
+        return new LinkedHashSet<>(apis.keySet());
+    }
+
+    public synchronized Set<String> getResourcePaths(String apiId) {
+        return getApi(apiId).resources.values().stream().map(r -> r.path).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Get the upper case HTTP methods of a resource
+     */
+    public synchronized Set<String> getHttpMethods(String apiId, String path) {
+        return new LinkedHashSet<>(getApi(apiId).getResourceByPath(path).methods.keySet());
+    }
+
+    public synchronized Set<String> getModelNames(String apiId) {
+        return new LinkedHashSet<>(getApi(apiId).models.keySet());
+    }
+
+    public synchronized String getModelSchema(String apiId, String modelName) {
+        final ModelState model = getApi(apiId).models.get(modelName);
+        return model == null ? null : model.schema;
+    }
+
+    public synchronized int getDeploymentCount(String apiId) {
+        return getApi(apiId).deployments.size();
+    }
+
+    private RestApiState getApi(String apiId) {
+        final RestApiState api = apis.get(apiId);
+        if (api == null) {
+            throw notFound("Invalid REST API identifier specified");
+        }
+        return api;
+    }
+
+    private String newId() {
+        return Long.toString(ids.incrementAndGet(), 36);
+    }
+
+    /*
+     * Count, delay and rate limit a remote call. Runs outside the state lock so that calls overlap like real calls
+     */
+    private void onRemoteCall(String operation) throws InterruptedException {
+        calls.computeIfAbsent(operation, o -> new AtomicInteger()).incrementAndGet();
+
+        final long latency = operationLatencyMillis.getOrDefault(operation, latencyMillis);
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+
+        if (!bucket.tryAcquire()) {
+            throttled.incrementAndGet();
+            throw error(429, "TooManyRequestsException", "Too Many Requests");
+        }
+    }
+
+    private static AmazonServiceException error(int status, String errorCode, String message) {
+        final AmazonServiceException e = new AmazonServiceException(message);
+        e.setStatusCode(status);
+        e.setErrorCode(errorCode);
+        return e;
+    }
+
+    private static AmazonServiceException notFound(String message) {
+        return error(404, "NotFoundException", message);
+    }
+
+    private static AmazonServiceException conflict(String message) {
+        return error(409, "ConflictException", message);
+    }
+
+    private static AmazonServiceException badRequest(String message) {
+        return error(400, "BadRequestException", message);
+    }
+
+    private <T> T expose(Class<T> type, Object state) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new Handler(state)));
+    }
+
+    private static <K, V> Map<K, V> copy(Map<K, V> map) {
+        return map == null ? null : new LinkedHashMap<>(map);
+    }
+
+    /*
+     * Dispatches calls on a HAL interface to the method of the same name and arity of the simulated state
+     */
+    private class Handler implements InvocationHandler {
+        private final Object state;
+
+        Handler(Object state) {
+            this.state = state;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return state.toString();
+                }
+            }
+
+            final boolean remote = HalClientProxy.isRemote(method);
+            if (remote) {
+                onRemoteCall(method.getName());
+            }
+
+            final Method target = findMethod(method);
+            if (target == null) {
+                if (method.getName().startsWith("get") || method.getName().startsWith("is")) {
+                    return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                }
+                throw new UnsupportedOperationException(format("%s.%s is not simulated",
+                                                               method.getDeclaringClass().getSimpleName(), method.getName()));
+            }
+
+            synchronized (SimulatedApiGateway.this) {
+                if (remote && state instanceof Node && ((Node) state).deleted) {
+                    throw notFound(format("%s no longer exists", state));
+                }
+
+                try {
+                    return target.invoke(state, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+
+        private Method findMethod(Method method) {
+            for (Method m : state.getClass().getDeclaredMethods()) {
+                if (m.getName().equals(method.getName()) && m.getParameterCount() == method.getParameterCount()
+                        && method.getReturnType().isAssignableFrom(m.getReturnType())) {
+                    m.setAccessible(true);
+                    return m;
+                }
+            }
+            return null;
+        }
+    }
+
+    /*
+     * Sustained rate with a burst allowance, refilled continuously
+     */
+    private static class TokenBucket {
+        private final double rate;
+        private final double burst;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(double rate, int burst) {
+            this.rate = rate;
+            this.burst = burst;
+            this.tokens = burst;
+        }
+
+        synchronized boolean tryAcquire() {
+            final long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + rate * (now - lastRefill) / TimeUnit.SECONDS.toNanos(1));
+            lastRefill = now;
+
+            if (tokens < 1) {
+                return false;
+            }
+
+            tokens--;
+            return true;
+        }
+    }
+
+    /*
+     * Simulated object that can be deleted, calls on a deleted object fail with a 404 like they do on the service
+     */
+    private abstract static class Node {
+        boolean deleted;
+    }
+
+    private class ApiGatewayState {
+        RestApi createRestApi(CreateRestApiInput input) {
+            final RestApiState api = new RestApiState(newId(), input.getName(), input.getDescription());
+            apis.put(api.id, api);
+            return api.proxy;
+        }
+
+        RestApi getRestApiById(String id) {
+            return getApi(id).proxy;
+        }
+
+        RestApis getRestApis() {
+            return expose(RestApis.class, new Items<>(apis.values().stream().map(a -> a.proxy).collect(Collectors.toList())));
+        }
+
+        @Override
+        public String toString() {
+            return "ApiGateway";
+        }
+    }
+
+    /*
+     * A page of items, the simulator returns all items in a single page
+     */
+    private static class Items<T> {
+        private final List<T> items;
+
+        Items(List<T> items) {
+            this.items = items;
+        }
+
+        List<T> getItem() {
+            return new ArrayList<>(items);
+        }
+    }
+
+    private class RestApiState extends Node {
+        final String id;
+        final String name;
+        final String description;
+        final Map<String, ResourceState> resources = new LinkedHashMap<>();
+        final Map<String, ModelState> models = new LinkedHashMap<>();
+        final List<String> deployments = new ArrayList<>();
+        final RestApi proxy;
+
+        RestApiState(String id, String name, String description) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.proxy = expose(RestApi.class, this);
+
+            final ResourceState root = new ResourceState(this, newId(), null, null);
+            resources.put(root.id, root);
+
+            // new APIs come with the default models
+            addModel("Empty", "This is a default empty schema model", "{\"$schema\": \"http://json-schema.org/draft-04/schema#\", \"title\": \"Empty Schema\", \"type\": \"object\"}");
+            addModel("Error", "This is a default error schema model", "{\"$schema\": \"http://json-schema.org/draft-04/schema#\", \"title\": \"Error Schema\", \"type\": \"object\", \"properties\": {\"message\": {\"type\": \"string\"}}}");
+        }
+
+        String getId() {
+            return id;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getDescription() {
+            return description;
+        }
+
+        Resources getResources() {
+            return expose(Resources.class, new Items<>(resources.values().stream().map(r -> r.proxy).collect(Collectors.toList())));
+        }
+
+        Resource getResourceById(String resourceId) {
+            final ResourceState resource = resources.get(resourceId);
+            if (resource == null) {
+                throw notFound("Invalid Resource identifier specified");
+            }
+            return resource.proxy;
+        }
+
+        ResourceState getResourceByPath(String path) {
+            return resources.values().stream().filter(r -> r.path.equals(path)).findFirst()
+                    .orElseThrow(() -> notFound("No resource with path " + path));
+        }
+
+        Models getModels() {
+            return expose(Models.class, new Items<>(models.values().stream().map(m -> m.proxy).collect(Collectors.toList())));
+        }
+
+        Model getModelByName(String modelName) {
+            final ModelState model = models.get(modelName);
+            if (model == null) {
+                throw notFound("Invalid model name specified");
+            }
+            return model.proxy;
+        }
+
+        Model createModel(CreateModelInput input) {
+            if (models.containsKey(input.getName())) {
+                throw conflict("Model name already exists for this REST API");
+            }
+            return addModel(input.getName(), input.getDescription(), input.getSchema()).proxy;
+        }
+
+        Deployment createDeployment(CreateDeploymentInput input) {
+            final String deploymentId = newId();
+            deployments.add(deploymentId);
+            return expose(Deployment.class, new DeploymentState(deploymentId));
+        }
+
+        void deleteRestApi() {
+            deleted = true;
+            apis.remove(id);
+        }
+
+        private ModelState addModel(String modelName, String modelDescription, String schema) {
+            final ModelState model = new ModelState(this, newId(), modelName, modelDescription, schema);
+            models.put(modelName, model);
+            return model;
+        }
+
+        @Override
+        public String toString() {
+            return "RestApi " + id;
+        }
+    }
+
+    private class ResourceState extends Node {
+        final RestApiState api;
+        final String id;
+        final String parentId;
+        final String pathPart;
+        final String path;
+        final Map<String, MethodState> methods = new LinkedHashMap<>();
+        final Resource proxy;
+
+        ResourceState(RestApiState api, String id, ResourceState parent, String pathPart) {
+            this.api = api;
+            this.id = id;
+            this.parentId = parent == null ? null : parent.id;
+            this.pathPart = pathPart;
+            this.path = parent == null ? "/" : (parent.path.equals("/") ? "" : parent.path) + "/" + pathPart;
+            this.proxy = expose(Resource.class, this);
+        }
+
+        String getId() {
+            return id;
+        }
+
+        String getParentId() {
+            return parentId;
+        }
+
+        String getPathPart() {
+            return pathPart;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        Map<String, com.amazonaws.services.apigateway.model.Method> getResourceMethods() {
+            final Map<String, com.amazonaws.services.apigateway.model.Method> result = new LinkedHashMap<>();
+            methods.forEach((httpMethod, method) -> result.put(httpMethod, method.proxy));
+            return result;
+        }
+
+        Resource createResource(CreateResourceInput input) {
+            final boolean exists = api.resources.values().stream()
+                    .anyMatch(r -> id.equals(r.parentId) && r.pathPart.equals(input.getPathPart()));
+            if (exists) {
+                throw conflict("Another resource with the same parent already has this name: " + input.getPathPart());
+            }
+
+            final ResourceState child = new ResourceState(api, newId(), this, input.getPathPart());
+            api.resources.put(child.id, child);
+            return child.proxy;
+        }
+
+        com.amazonaws.services.apigateway.model.Method putMethod(PutMethodInput input, String httpMethod) {
+            if (methods.containsKey(httpMethod.toUpperCase())) {
+                throw conflict("Method already exists for this resource");
+            }
+
+            final MethodState method = new MethodState(this, httpMethod.toUpperCase(), input);
+            methods.put(method.httpMethod, method);
+            return method.proxy;
+        }
+
+        com.amazonaws.services.apigateway.model.Method getMethodByHttpMethod(String httpMethod) {
+            final MethodState method = methods.get(httpMethod.toUpperCase());
+            if (method == null) {
+                throw notFound("Invalid Method identifier specified");
+            }
+            return method.proxy;
+        }
+
+        boolean _isLinkAvailable(String rel) {
+            return parentId != null || !rel.equals("resource:delete");
+        }
+
+        /*
+         * Deleting a resource deletes its descendants
+         */
+        void deleteResource() {
+            if (parentId == null) {
+                throw badRequest("The root resource can't be deleted");
+            }
+
+            new ArrayList<>(api.resources.values()).stream()
+                    .filter(r -> r.path.equals(path) || r.path.startsWith(path + "/"))
+                    .forEach(r -> {
+                        r.deleted = true;
+                        api.resources.remove(r.id);
+                    });
+        }
+
+        @Override
+        public String toString() {
+            return "Resource " + path;
+        }
+    }
+
+    private class MethodState extends Node {
+        final ResourceState resource;
+        final String httpMethod;
+        String authorizationType;
+        Boolean apiKeyRequired;
+        final Map<String, Boolean> requestParameters;
+        final Map<String, String> requestModels;
+        final Map<String, MethodResponseState> responses = new LinkedHashMap<>();
+        IntegrationState integration;
+        final com.amazonaws.services.apigateway.model.Method proxy;
+
+        MethodState(ResourceState resource, String httpMethod, PutMethodInput input) {
+            this.resource = resource;
+            this.httpMethod = httpMethod;
+            this.authorizationType = input.getAuthorizationType();
+            this.apiKeyRequired = input.getApiKeyRequired();
+            this.requestParameters = input.getRequestParameters() == null ? new LinkedHashMap<>() : copy(input.getRequestParameters());
+            this.requestModels = input.getRequestModels() == null ? new LinkedHashMap<>() : copy(input.getRequestModels());
+            this.proxy = expose(com.amazonaws.services.apigateway.model.Method.class, this);
+        }
+
+        String getHttpMethod() {
+            return httpMethod;
+        }
+
+        String getAuthorizationType() {
+            return authorizationType;
+        }
+
+        Boolean getApiKeyRequired() {
+            return apiKeyRequired;
+        }
+
+        Map<String, Boolean> getRequestParameters() {
+            return copy(requestParameters);
+        }
+
+        Map<String, String> getRequestModels() {
+            return copy(requestModels);
+        }
+
+        Map<String, MethodResponse> getMethodResponses() {
+            final Map<String, MethodResponse> result = new LinkedHashMap<>();
+            responses.forEach((status, response) -> result.put(status, response.proxy));
+            return result;
+        }
+
+        Integration getMethodIntegration() {
+            if (integration == null) {
+                throw notFound("No integration defined for method");
+            }
+            return integration.proxy;
+        }
+
+        MethodResponse putMethodResponse(PutMethodResponseInput input, String statusCode) {
+            final MethodResponseState response = new MethodResponseState(this, statusCode, input);
+            replace(responses.put(statusCode, response));
+            return response.proxy;
+        }
+
+        Integration putIntegration(PutIntegrationInput input) {
+            replace(integration);
+            integration = new IntegrationState(this, input);
+            return integration.proxy;
+        }
+
+        com.amazonaws.services.apigateway.model.Method updateMethod(PatchDocument patch) {
+            for (PatchOperation op : patch.getPatchOperations()) {
+                final String[] path = parsePath(op);
+
+                switch (path[0]) {
+                    case "authorizationType":
+                        authorizationType = op.getValue();
+                        break;
+                    case "apiKeyRequired":
+                        apiKeyRequired = Boolean.valueOf(op.getValue());
+                        break;
+                    case "requestParameters":
+                        applyToMap(requestParameters, op, path, Boolean::valueOf);
+                        break;
+                    case "requestModels":
+                        applyToMap(requestModels, op, path, v -> v);
+                        break;
+                    default:
+                        throw badRequest("Invalid patch path " + op.getPath());
+                }
+            }
+            return proxy;
+        }
+
+        void deleteMethod() {
+            deleted = true;
+            resource.methods.remove(httpMethod);
+        }
+
+        @Override
+        public String toString() {
+            return "Method " + httpMethod + " " + resource.path;
+        }
+    }
+
+    private class MethodResponseState extends Node {
+        final MethodState method;
+        final String statusCode;
+        final Map<String, Boolean> responseParameters;
+        final Map<String, String> responseModels;
+        final MethodResponse proxy;
+
+        MethodResponseState(MethodState method, String statusCode, PutMethodResponseInput input) {
+            this.method = method;
+            this.statusCode = statusCode;
+            this.responseParameters = copy(input.getResponseParameters());
+            this.responseModels = copy(input.getResponseModels());
+            this.proxy = expose(MethodResponse.class, this);
+        }
+
+        String getStatusCode() {
+            return statusCode;
+        }
+
+        Map<String, Boolean> getResponseParameters() {
+            return copy(responseParameters);
+        }
+
+        Map<String, String> getResponseModels() {
+            return copy(responseModels);
+        }
+
+        void deleteMethodResponse() {
+            deleted = true;
+            method.responses.remove(statusCode);
+        }
+
+        @Override
+        public String toString() {
+            return "MethodResponse " + statusCode + " of " + method;
+        }
+    }
+
+    private class IntegrationState extends Node {
+        final MethodState method;
+        final String type;
+        final String uri;
+        final String httpMethod;
+        final String credentials;
+        final Map<String, String> requestParameters;
+        final Map<String, String> requestTemplates;
+        final String cacheNamespace;
+        final List<String> cacheKeyParameters;
+        final Map<String, IntegrationResponseState> responses = new LinkedHashMap<>();
+        final Integration proxy;
+
+        IntegrationState(MethodState method, PutIntegrationInput input) {
+            this.method = method;
+            this.type = Objects.toString(input.getType(), null);
+            this.uri = input.getUri();
+            this.httpMethod = input.getHttpMethod();
+            this.credentials = input.getCredentials();
+            this.requestParameters = copy(input.getRequestParameters());
+            this.requestTemplates = copy(input.getRequestTemplates());
+            this.cacheNamespace = input.getCacheNamespace();
+            this.cacheKeyParameters = input.getCacheKeyParameters() == null ? null : new ArrayList<>(input.getCacheKeyParameters());
+            this.proxy = expose(Integration.class, this);
+        }
+
+        String getType() {
+            return type;
+        }
+
+        String getUri() {
+            return uri;
+        }
+
+        String getHttpMethod() {
+            return httpMethod;
+        }
+
+        String getCredentials() {
+            return credentials;
+        }
+
+        Map<String, String> getRequestParameters() {
+            return copy(requestParameters);
+        }
+
+        Map<String, String> getRequestTemplates() {
+            return copy(requestTemplates);
+        }
+
+        String getCacheNamespace() {
+            return cacheNamespace;
+        }
+
+        List<String> getCacheKeyParameters() {
+            return cacheKeyParameters == null ? null : new ArrayList<>(cacheKeyParameters);
+        }
+
+        Map<String, IntegrationResponse> getIntegrationResponses() {
+            final Map<String, IntegrationResponse> result = new LinkedHashMap<>();
+            responses.forEach((status, response) -> result.put(status, response.proxy));
+            return result;
+        }
+
+        IntegrationResponse putIntegrationResponse(PutIntegrationResponseInput input, String statusCode) {
+            final IntegrationResponseState response = new IntegrationResponseState(this, statusCode, input);
+            replace(responses.put(statusCode, response));
+            return response.proxy;
+        }
+
+        void deleteIntegration() {
+            deleted = true;
+            method.integration = null;
+        }
+
+        @Override
+        public String toString() {
+            return "Integration of " + method;
+        }
+    }
+
+    private class IntegrationResponseState extends Node {
+        final IntegrationState integration;
+        final String statusCode;
+        final String selectionPattern;
+        final Map<String, String> responseParameters;
+        final Map<String, String> responseTemplates;
+        final IntegrationResponse proxy;
+
+        IntegrationResponseState(IntegrationState integration, String statusCode, PutIntegrationResponseInput input) {
+            this.integration = integration;
+            this.statusCode = statusCode;
+            this.selectionPattern = input.getSelectionPattern();
+            this.responseParameters = copy(input.getResponseParameters());
+            this.responseTemplates = copy(input.getResponseTemplates());
+            this.proxy = expose(IntegrationResponse.class, this);
+        }
+
+        String getStatusCode() {
+            return statusCode;
+        }
+
+        String getSelectionPattern() {
+            return selectionPattern;
+        }
+
+        Map<String, String> getResponseParameters() {
+            return copy(responseParameters);
+        }
+
+        Map<String, String> getResponseTemplates() {
+            return copy(responseTemplates);
+        }
+
+        void deleteIntegrationResponse() {
+            deleted = true;
+            integration.responses.remove(statusCode);
+        }
+
+        @Override
+        public String toString() {
+            return "IntegrationResponse " + statusCode + " of " + integration;
+        }
+    }
+
+    private class ModelState extends Node {
+        final RestApiState api;
+        final String id;
+        final String name;
+        String description;
+        final String contentType;
+        String schema;
+        final Model proxy;
+
+        ModelState(RestApiState api, String id, String name, String description, String schema) {
+            this.api = api;
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.contentType = DEFAULT_CONTENT_TYPE;
+            this.schema = schema;
+            this.proxy = expose(Model.class, this);
+        }
+
+        String getId() {
+            return id;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getDescription() {
+            return description;
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+        String getSchema() {
+            return schema;
+        }
+
+        Model updateModel(PatchDocument patch) {
+            for (PatchOperation op : patch.getPatchOperations()) {
+                switch (parsePath(op)[0]) {
+                    case "schema":
+                        schema = op.getValue();
+                        break;
+                    case "description":
+                        description = op.getValue();
+                        break;
+                    default:
+                        throw badRequest("Invalid patch path " + op.getPath());
+                }
+            }
+            return proxy;
+        }
+
+        void deleteModel() {
+            final boolean referenced = api.resources.values().stream()
+                    .flatMap(r -> r.methods.values().stream())
+                    .anyMatch(m -> m.requestModels.containsValue(name) || m.responses.values().stream()
+                            .anyMatch(r -> r.responseModels != null && r.responseModels.containsValue(name)));
+            if (referenced) {
+                throw conflict("Cannot delete model '" + name + "', is referenced in method request or method response");
+            }
+
+            deleted = true;
+            api.models.remove(name);
+        }
+
+        @Override
+        public String toString() {
+            return "Model " + name;
+        }
+    }
+
+    private static class DeploymentState {
+        final String id;
+
+        DeploymentState(String id) {
+            this.id = id;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return "Deployment " + id;
+        }
+    }
+
+    /*
+     * A put replaces the existing child, which is gone from then on
+     */
+    private static void replace(Node previous) {
+        if (previous != null) {
+            previous.deleted = true;
+        }
+    }
+
+    /*
+     * Split a patch path into its property and key, unescaping the key, e.g. /requestParameters/method.request.path.id
+     */
+    private static String[] parsePath(PatchOperation op) {
+        if (op.getPath() == null || !op.getPath().startsWith("/")) {
+            throw badRequest("Invalid patch path " + op.getPath());
+        }
+
+        final String[] path = op.getPath().substring(1).split("/", 2);
+        if (path.length == 2) {
+            path[1] = path[1].replace("~1", "/").replace("~0", "~");
+        }
+        return path;
+    }
+
+    private static <V> void applyToMap(Map<String, V> map, PatchOperation op, String[] path,
+                                       Function<String, V> parse) {
+        if (path.length < 2) {
+            throw badRequest("Invalid patch path " + op.getPath());
+        }
+
+        switch (op.getOp()) {
+            case "add":
+            case "replace":
+                if (op.getOp().equals("replace") && !map.containsKey(path[1])) {
+                    throw badRequest("Invalid patch path " + op.getPath());
+                }
+                map.put(path[1], parse.apply(op.getValue()));
+                break;
+            case "remove":
+                if (map.remove(path[1]) == null) {
+                    throw badRequest("Invalid patch path " + op.getPath());
+                }
+                break;
+            default:
+                throw badRequest("Unsupported patch operation " + op.getOp());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.service.apigateway.importer.config.SimulatedApiGatewayModule;
+import com.amazonaws.services.apigateway.model.ApiGateway;
+import com.amazonaws.services.apigateway.model.CreateResourceInput;
+import com.amazonaws.services.apigateway.model.CreateRestApiInput;
+import com.amazonaws.services.apigateway.model.Method;
+import com.amazonaws.services.apigateway.model.PutMethodInput;
+import com.amazonaws.services.apigateway.model.Resource;
+import com.amazonaws.services.apigateway.model.RestApi;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.wordnik.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import org.junit.Test;
+
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.service.apigateway.importer.util.PatchUtils.createAddOperation;
+import static com.amazonaws.service.apigateway.importer.util.PatchUtils.createPatchDocument;
+import static com.amazonaws.service.apigateway.importer.util.PatchUtils.createReplaceOperation;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SimulatedApiGatewayTest {
+
+    @Test
+    public void testStateIsKept() {
+        SimulatedApiGateway simulator = new SimulatedApiGateway();
+        RestApi api = simulator.getClient().createRestApi(new CreateRestApiInput().withName("test"));
+
+        Resource root = api.getResources().getItem().get(0);
+        Resource pets = root.createResource(new CreateResourceInput().withPathPart("pets"));
+        pets.createResource(new CreateResourceInput().withPathPart("{petId}"));
+
+        Method method = pets.putMethod(new PutMethodInput().withAuthorizationType("NONE"), "get");
+        method.updateMethod(createPatchDocument(createReplaceOperation("/authorizationType", "AWS_IAM"),
+                                                createAddOperation("/requestParameters/method.request.querystring.limit", "true")));
+
+        assertEquals(new HashSet<>(Arrays.asList("/", "/pets", "/pets/{petId}")), simulator.getResourcePaths(api.getId()));
+        assertEquals(new HashSet<>(Arrays.asList("Empty", "Error")), simulator.getModelNames(api.getId()));
+        assertEquals(new HashSet<>(Arrays.asList("GET")), simulator.getHttpMethods(api.getId(), "/pets"));
+
+        Method read = api.getResourceById(pets.getId()).getResourceMethods().get("GET");
+        assertEquals("AWS_IAM", read.getAuthorizationType());
+        assertTrue(read.getRequestParameters().get("method.request.querystring.limit"));
+    }
+
+    @Test
+    public void testDeletingResourceDeletesDescendants() {
+        SimulatedApiGateway simulator = new SimulatedApiGateway();
+        RestApi api = simulator.getClient().createRestApi(new CreateRestApiInput().withName("test"));
+
+        Resource root = api.getResources().getItem().get(0);
+        Resource pets = root.createResource(new CreateResourceInput().withPathPart("pets"));
+        Resource pet = pets.createResource(new CreateResourceInput().withPathPart("{petId}"));
+
+        assertFalse(root._isLinkAvailable("resource:delete"));
+        pets.deleteResource();
+
+        assertEquals(new HashSet<>(Arrays.asList("/")), simulator.getResourcePaths(api.getId()));
+        assertStatus(404, () -> pet.putMethod(new PutMethodInput(), "GET"));
+    }
+
+    @Test
+    public void testConflicts() {
+        SimulatedApiGateway simulator = new SimulatedApiGateway();
+        RestApi api = simulator.getClient().createRestApi(new CreateRestApiInput().withName("test"));
+        Resource root = api.getResources().getItem().get(0);
+
+        root.createResource(new CreateResourceInput().withPathPart("pets"));
+        assertStatus(409, () -> root.createResource(new CreateResourceInput().withPathPart("pets")));
+
+        root.putMethod(new PutMethodInput(), "GET");
+        assertStatus(409, () -> root.putMethod(new PutMethodInput(), "GET"));
+        assertStatus(404, () -> root.getMethodByHttpMethod("GET").getMethodIntegration());
+    }
+
+    @Test
+    public void testThrottledWhenBucketIsEmpty() {
+        SimulatedApiGateway simulator = new SimulatedApiGateway(0, 0.001, 2);
+        ApiGateway client = simulator.getClient();
+
+        RestApi api = client.createRestApi(new CreateRestApiInput().withName("test"));
+        api.getResources();
+
+        try {
+            api.getModels();
+            fail("Expected the call to be throttled");
+        } catch (AmazonServiceException e) {
+            assertTrue(ThrottlingHalClientProxy.isThrottlingError(e));
+        }
+
+        assertEquals(3, simulator.getCallCount());
+        assertEquals(1, simulator.getThrottledCount());
+    }
+
+    @Test
+    public void testThrottledCallsAreRetriedByClient() {
+        SimulatedApiGateway simulator = new SimulatedApiGateway(0, 50, 1);
+        ApiGateway client = ThrottlingHalClientProxy.wrap(simulator.getClient(), new AdaptiveRateLimiter(100, 100, 5));
+
+        RestApi api = client.createRestApi(new CreateRestApiInput().withName("test"));
+        Resource root = api.getResources().getItem().get(0);
+        for (int i = 0; i < 10; i++) {
+            root.createResource(new CreateResourceInput().withPathPart("r" + i));
+        }
+
+        assertEquals(11, simulator.getResourcePaths(api.getId()).size());
+        assertTrue(simulator.getThrottledCount() > 0);
+        // createRestApi, getResources, getItem and the resources, each accepted once
+        assertEquals(13, simulator.getCallCount() - simulator.getThrottledCount());
+    }
+
+    @Test
+    public void testLatency() {
+        SimulatedApiGateway simulator = new SimulatedApiGateway(0, Double.POSITIVE_INFINITY, Integer.MAX_VALUE)
+                .withLatency("createResource", 20);
+        RestApi api = simulator.getClient().createRestApi(new CreateRestApiInput().withName("test"));
+        Resource root = api.getResources().getItem().get(0);
+
+        long start = System.nanoTime();
+        root.createResource(new CreateResourceInput().withPathPart("a"));
+        root.createResource(new CreateResourceInput().withPathPart("b"));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 40);
+        assertEquals(2, simulator.getCallCount("createResource"));
+    }
+
+    @Test
+    public void testImport() throws URISyntaxException {
+        SimulatedApiGateway simulator = new SimulatedApiGateway(1, 100, 20);
+        Injector injector = Guice.createInjector(new SimulatedApiGatewayModule(simulator));
+        ApiGatewaySdkSwaggerApiImporter importer = injector.getInstance(ApiGatewaySdkSwaggerApiImporter.class);
+
+        Swagger swagger = new SwaggerParser().read(Paths.get(getClass().getResource("/petstore-simple.json").toURI()).toString());
+        String apiId = importer.createApi(swagger, "petstore-simple.json");
+
+        assertTrue(simulator.getResourcePaths(apiId).contains("/api/pets/{id}"));
+        assertTrue(simulator.getModelNames(apiId).containsAll(swagger.getDefinitions().keySet()));
+        assertFalse(simulator.getModelNames(apiId).contains("Empty"));
+
+        simulator.resetCallCounts();
+        importer.updateApi(apiId, swagger);
+        assertEquals(1, simulator.getApiIds().size());
+
+        // an unchanged swagger only reads the state of the API
+        for (String write : Arrays.asList("createModel", "updateModel", "putMethod", "updateMethod", "putMethodResponse",
+                                          "putIntegration", "putIntegrationResponse", "deleteResource", "deleteMethod")) {
+            assertEquals(write, 0, simulator.getCallCount(write));
+        }
+    }
+
+    private void assertStatus(int status, Runnable call) {
+        try {
+            call.run();
+            fail("Expected a " + status + " error");
+        } catch (AmazonServiceException e) {
+            assertEquals(status, e.getStatusCode());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.apigateway.model.ApiGateway;
+import com.amazonaws.services.apigateway.model.Resource;
+import com.amazonaws.services.apigateway.model.RestApi;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ThrottlingHalClientProxyTest {
+
+    private ApiGateway client;
+    private RestApi restApi;
+    private RateLimiter rateLimiter;
+
+    @Before
+    public void setUp() {
+        client = mock(ApiGateway.class);
+        restApi = mock(RestApi.class);
+        rateLimiter = mock(RateLimiter.class);
+
+        when(client.getRestApiById(any())).thenReturn(restApi);
+    }
+
+    @Test
+    public void testThrottledCallIsRetried() {
+        Resource resource = mock(Resource.class);
+        when(resource.getId()).thenReturn("abc");
+        when(restApi.getResourceById("abc")).thenThrow(throttlingException()).thenReturn(resource);
+
+        ApiGateway throttled = ThrottlingHalClientProxy.wrap(client, rateLimiter);
+
+        assertEquals("abc", throttled.getRestApiById("api").getResourceById("abc").getId());
+        verify(restApi, times(2)).getResourceById("abc");
+        verify(rateLimiter, times(1)).onThrottled();
+    }
+
+    @Test
+    public void testLocalPropertiesAreNotRateLimited() {
+        when(restApi.getId()).thenReturn("api");
+
+        RestApi api = ThrottlingHalClientProxy.wrap(client, rateLimiter).getRestApiById("api");
+        api.getId();
+        api.getId();
+
+        // only the link to the rest api is a remote call
+        verify(rateLimiter, times(1)).acquire();
+    }
+
+    @Test(expected = AmazonServiceException.class)
+    public void testOtherErrorsAreNotRetried() {
+        AmazonServiceException e = new AmazonServiceException("not found");
+        e.setStatusCode(404);
+        when(restApi.getResourceById(any())).thenThrow(e);
+
+        ThrottlingHalClientProxy.wrap(client, rateLimiter).getRestApiById("api").getResourceById("abc");
+    }
+
+    @Test
+    public void testInterruptedBackoffKeepsInterruptFlag() {
+        when(restApi.getResourceById(any())).thenThrow(throttlingException());
+        RestApi api = ThrottlingHalClientProxy.wrap(client, rateLimiter).getRestApiById("api");
+
+        Thread.currentThread().interrupt();
+        try {
+            api.getResourceById("abc");
+            fail("Expected the interrupted retry to fail");
+        } catch (AmazonClientException e) {
+            assertTrue(e.getMessage().contains("getResourceById"));
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test
+    public void testRateAdapts() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(4, 10, 1);
+        limiter.onThrottled();
+        assertEquals(2, limiter.getRate(), 0.001);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.onSuccess();
+        }
+        assertTrue(limiter.getRate() <= 10);
+    }
+
+    @Test
+    public void testInterruptedWaitForRateLimitFails() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(0.5, 0.5, 1);
+        limiter.acquire();
+
+        Thread.currentThread().interrupt();
+        try {
+            limiter.acquire();
+            fail("Expected the interrupted wait to fail");
+        } catch (AmazonClientException e) {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    private AmazonServiceException throttlingException() {
+        AmazonServiceException e = new AmazonServiceException("Too Many Requests");
+        e.setStatusCode(429);
+        return e;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.impl.sdk;
+
+import com.amazonaws.services.apigateway.model.Method;
+import com.amazonaws.services.apigateway.model.PatchOperation;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UpdatePlannerTest {
+
+    @Test
+    public void testUnchangedMethodSettings() {
+        Method method = mock(Method.class);
+        when(method.getAuthorizationType()).thenReturn("AWS_IAM");
+        when(method.getApiKeyRequired()).thenReturn(false);
+
+        assertTrue(UpdatePlanner.planMethodSettings(method, "AWS_IAM", false).isEmpty());
+        assertEquals(1, UpdatePlanner.planMethodSettings(method, "NONE", false).size());
+    }
+
+    @Test
+    public void testRequestParameters() {
+        Map<String, Boolean> existing = new HashMap<>();
+        existing.put("method.request.querystring.unchanged", true);
+        existing.put("method.request.querystring.changed", false);
+        existing.put("method.request.querystring.removed", false);
+
+        Map<String, Boolean> parameters = new HashMap<>();
+        parameters.put("method.request.querystring.unchanged", true);
+        parameters.put("method.request.querystring.changed", true);
+        parameters.put("method.request.header.added", false);
+
+        List<PatchOperation> ops = UpdatePlanner.planRequestParameters(existing, parameters);
+
+        assertEquals(3, ops.size());
+        assertTrue(ops.stream().anyMatch(op -> op.getOp().equals("remove") && op.getPath().endsWith(".removed")));
+        assertTrue(ops.stream().anyMatch(op -> op.getOp().equals("replace") && op.getPath().endsWith(".changed")));
+        assertTrue(ops.stream().anyMatch(op -> op.getOp().equals("add") && op.getPath().endsWith(".added")));
+    }
+
+    @Test
+    public void testRequestParameters_noExisting() {
+        Map<String, Boolean> parameters = new HashMap<>();
+        parameters.put("method.request.path.id", true);
+
+        assertEquals(1, UpdatePlanner.planRequestParameters(null, parameters).size());
+    }
+
+    @Test
+    public void testSchemaComparedStructurally() throws IOException {
+        assertFalse(UpdatePlanner.isSchemaChanged("{ \"title\" : \"a\", \"type\" : \"object\" }", tree("{\"type\":\"object\",\"title\":\"a\"}")));
+        assertTrue(UpdatePlanner.isSchemaChanged("{\"type\":\"object\"}", tree("{\"type\":\"array\"}")));
+        assertTrue(UpdatePlanner.isSchemaChanged(null, tree("{\"type\":\"array\"}")));
+    }
+
+    private JsonNode tree(String json) throws IOException {
+        return new ObjectMapper().readTree(json);
+    }
+}
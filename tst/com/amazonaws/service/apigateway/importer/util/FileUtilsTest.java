@@ -0,0 +1,65 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class FileUtilsTest {
+
+    @Test
+    public void testWriteAtomicallyReplacesFile() throws IOException {
+        Path file = Files.createTempDirectory("files").resolve("a/b/file.json");
+
+        FileUtils.writeAtomically(file, "first".getBytes(StandardCharsets.UTF_8));
+        FileUtils.writeAtomically(file, "second".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("second", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        assertEquals(1, count(file.getParent()));
+    }
+
+    @Test
+    public void testFailedWriteKeepsFile() throws IOException {
+        Path file = Files.createTempDirectory("files").resolve("file.json");
+        FileUtils.writeAtomically(file, "first".getBytes(StandardCharsets.UTF_8));
+
+        try {
+            FileUtils.writeAtomically(file, out -> {
+                out.write('x');
+                throw new IOException("failed");
+            });
+            fail("expected the write to fail");
+        } catch (IOException e) {
+            assertEquals("failed", e.getMessage());
+        }
+
+        assertEquals("first", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        assertEquals(1, count(file.getParent()));
+    }
+
+    private long count(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2010-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.service.apigateway.importer.util;
+
+import com.amazonaws.services.apigateway.model.PatchDocument;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.amazonaws.service.apigateway.importer.util.PatchUtils.createAddOperation;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class PatchAccumulatorTest {
+
+    @Test
+    public void testOperationsAreCoalesced() {
+        List<PatchDocument> sent = new ArrayList<>();
+        PatchAccumulator<Integer> patch = new PatchAccumulator<>(pd -> {
+            sent.add(pd);
+            return sent.size();
+        }, 10);
+
+        for (int i = 0; i < 15; i++) {
+            patch.add(createAddOperation("/requestParameters/method.request.querystring.p" + i, "false"));
+        }
+
+        assertEquals(Integer.valueOf(2), patch.flush().get());
+        assertEquals(2, sent.size());
+        assertEquals(10, sent.get(0).getPatchOperations().size());
+        assertEquals(5, sent.get(1).getPatchOperations().size());
+    }
+
+    @Test
+    public void testEmptyFlushSendsNothing() {
+        List<PatchDocument> sent = new ArrayList<>();
+        PatchAccumulator<Boolean> patch = PatchUtils.createPatchAccumulator(sent::add);
+
+        assertFalse(patch.flush().isPresent());
+        assertEquals(0, sent.size());
+    }
+}